@@ -0,0 +1,44 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+// Entry point of target/benchmarks.jar: the usual JMH command line (-p dataset=chess.txt, -bm avgt, ...)
+// with the GC profiler always on, so every configuration also reports its allocation rate.
+// Without -p dataset, every .txt file of the datasets directory (-Dfim.datasets, datasets by default)
+// is benchmarked, so a new dataset is picked up without touching MiningBenchmark.
+public class FimBenchmarks {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String datasetDir = System.getProperty("fim.datasets", "datasets");
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Dfim.datasets=" + datasetDir);
+        if (!commandLine.getParameter("dataset").hasValue()) {
+            options.param("dataset", datasets(datasetDir));
+        }
+        new Runner(options.build()).run();
+    }
+
+    // File names of the datasets, sorted
+    static String[] datasets(String datasetDir) throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(datasetDir))) {
+            String[] names = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".txt"))
+                    .sorted()
+                    .toArray(String[]::new);
+            if (names.length == 0) {
+                throw new IOException("No .txt dataset in " + datasetDir);
+            }
+            return names;
+        }
+    }
+}
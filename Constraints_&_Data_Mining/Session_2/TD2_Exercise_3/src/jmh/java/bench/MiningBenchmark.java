@@ -0,0 +1,95 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// One benchmark per (dataset, minSupport, algorithm). Only the mining call is measured: the dataset is
+// loaded once per trial and nothing is printed.
+//
+// JMH refuses benchmarks in the default package, and named packages cannot refer to the miners, which
+// live in the default package, so they are reached through method handles resolved during setup.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MiningBenchmark {
+
+    // FimBenchmarks replaces this with every dataset found in the datasets directory
+    @Param({"vote.txt"})
+    public String dataset;
+
+    // "default" picks a threshold that keeps every algorithm tractable on the dataset (see defaultSupport)
+    @Param({"default"})
+    public String minSupport;
+
+    @Param({"apriori", "bottomUp", "aprioriQ5", "eclat", "fpGrowth"})
+    public String algorithm;
+
+    // Minimum itemset size for aprioriQ5
+    @Param({"1"})
+    public int minItemsetSize;
+
+    private Object miner;
+    private MethodHandle run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        ClassLoader loader = MiningBenchmark.class.getClassLoader();
+        Class<?> databaseClass = Class.forName("Database", true, loader);
+
+        String datasetDir = System.getProperty("fim.datasets", "datasets");
+        MethodHandle loadDataset = lookup.findStatic(Class.forName("Utils", true, loader), "loadDataset",
+                MethodType.methodType(databaseClass, String.class));
+        Object database = loadDataset.invoke(Path.of(datasetDir, dataset).toString());
+        double support = minSupport.equals("default") ? defaultSupport(dataset) : Double.parseDouble(minSupport);
+
+        String className;
+        switch (algorithm) {
+            case "apriori" -> className = "Apriori";
+            case "bottomUp" -> className = "BottomUp";
+            case "aprioriQ5" -> className = "AprioriQ5";
+            case "eclat" -> className = "Eclat";
+            case "fpGrowth" -> className = "FPGrowth";
+            default -> throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        }
+
+        Class<?> minerClass = Class.forName(className, true, loader);
+        if (className.equals("AprioriQ5")) {
+            miner = lookup.findConstructor(minerClass,
+                            MethodType.methodType(void.class, databaseClass, double.class, int.class))
+                    .invoke(database, support, minItemsetSize);
+        } else {
+            miner = lookup.findConstructor(minerClass, MethodType.methodType(void.class, databaseClass, double.class))
+                    .invoke(database, support);
+        }
+        run = lookup.findVirtual(minerClass, "run", MethodType.methodType(List.class))
+                .asType(MethodType.methodType(List.class, Object.class));
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<Map<?, Integer>> mine() throws Throwable {
+        return (List<Map<?, Integer>>) run.invokeExact(miner);
+    }
+
+    // Thresholds used in Main where there is one, otherwise roughly a few hundred itemsets for Apriori
+    static double defaultSupport(String dataset) {
+        return switch (dataset) {
+            case "BMS.txt" -> 0.05;
+            case "T10.txt", "retail.txt" -> 0.01;
+            case "chess.txt", "kr-vs-kp.txt", "anneal.txt" -> 0.9;
+            case "lazaar.txt" -> 0.2;
+            default -> 0.4;
+        };
+    }
+}
@@ -1,91 +1,126 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 
 public class Apriori {
     private double minSupport; // Minimum support threshold
     private Database database;
+    private int threads = 1; // Threads used for support counting
+    private double sampleFraction = 1.0; // Fraction of the transactions mined when sampling
+    private long sampleSeed;
+    private Toivonen sampling; // Last sampled run
+    private ItemsetConstraints constraints; // Constraints pushed into the search, or null
 
     public Apriori(Database database, double minSupport) {
         this.database = database;
         this.minSupport = minSupport;
     }
 
+    // Count supports on the given number of threads; results are identical to the sequential run
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    // Mine a uniform random sample holding about fraction of the transactions at a lowered threshold,
+    // then verify it in one pass over the whole database (Toivonen). Supports are exact, but a frequent
+    // itemset can be missing from the result when isMissPossible() says so. A fraction of 1 mines everything.
+    public void setSampling(double fraction, long seed) {
+        this.sampleFraction = fraction;
+        this.sampleSeed = seed;
+    }
+
+    // Report only the frequent itemsets satisfying the constraints, pruning the search with them instead of
+    // filtering the result. A constrained run mines every transaction: sampling does not apply to it.
+    public void setConstraints(ItemsetConstraints constraints) {
+        this.constraints = constraints;
+    }
+
+    // Whether the last sampled run may have missed frequent itemsets
+    public boolean isMissPossible() {
+        return sampling != null && sampling.isMissPossible();
+    }
+
+    // Negative border of the last sampled run, with exact supports
+    public Map<Set<String>, Integer> getNegativeBorder() {
+        return sampling != null ? sampling.getNegativeBorder() : Map.of();
+    }
+
     // Step 1: Generate frequent 1-itemsets
     public Map<Set<String>, Integer> generateFrequentItemsets() {
         Map<Set<String>, Integer> frequentItemsets = new HashMap<>();
+        ItemDictionary dictionary = database.getDictionary();
+        for (int[] itemset : generateFrequent1Itemsets()) {
+            frequentItemsets.put(dictionary.decode(itemset), dictionary.getFrequency(itemset[0]));
+        }
+        return frequentItemsets;
+    }
 
-        for (Transaction transaction: database.getTransactions()){
-            for( String item : transaction.getItems()){
-                Set<String> itemSet = Set.of(item);
-                frequentItemsets.put(itemSet,frequentItemsets.getOrDefault(itemSet,0)+1);
+    // Step 1 (int form): the item dictionary already holds every item's support,
+    // filter by minSupport.
+    private List<int[]> generateFrequent1Itemsets() {
+        ItemDictionary dictionary = database.getDictionary();
+        int minCount = (int) Math.ceil(minSupport * database.size());
+        List<int[]> frequentItemsets = new ArrayList<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (dictionary.getFrequency(id) >= minCount) {
+                frequentItemsets.add(new int[]{id});
             }
         }
-        // and filter by minSupport.
-        int minCount = (int) Math.ceil(minSupport * database.size());
-        frequentItemsets.entrySet().removeIf(entry -> entry.getValue() < minCount);
         return frequentItemsets;
     }
 
     // Step 2: Generate candidate k-itemsets from (k-1)-itemsets
     public Set<Set<String>> generateCandidates(Set<Set<String>> previousItemsets) {
-        Set<Set<String>> candidates = new HashSet<>();
-        List<Set<String>> previousList = new ArrayList<>(previousItemsets);
-        for (int i = 0; i < previousList.size(); i++) {
-            for (int j = i + 1; j < previousList.size(); j++) {
-                Set<String> candidate = new HashSet<>(previousList.get(i));
-                candidate.addAll(previousList.get(j));
-                if (candidate.size() == previousList.get(i).size() + 1) {
-                    candidates.add(candidate);
-                }
-            }
-        }
-        return candidates;
+        return AprioriGen.generateFromLabels(previousItemsets);
     }
 
-    // Run Apriori with the Child Operator Based on Lexicographical Order
+    // Step 2 (int form): prefix join of the sorted (k-1)-itemsets with subset pruning
+    public List<int[]> generateCandidates(List<int[]> previousItemsets) {
+        return AprioriGen.generate(previousItemsets);
+    }
+
+    // Child Operator Based on Lexicographical Order: the prefix join of generateCandidates already walks
+    // the itemsets in lexicographic order, so this is the same generation
+    @Deprecated
     public Set<Set<String>> generateCandidatesWithLex(Set<Set<String>> previousItemsets) {
-        Set<Set<String>> candidates = new HashSet<>();
-        List<Set<String>> previousList = new ArrayList<>(previousItemsets);
-
-        // Sort itemsets lexicographically
-        previousList.sort((set1, set2) -> {
-            List<String> list1 = new ArrayList<>(set1);
-            List<String> list2 = new ArrayList<>(set2);
-            Collections.sort(list1);
-            Collections.sort(list2);
-            return list1.toString().compareTo(list2.toString());
-        });
-
-        for (int i = 0; i < previousList.size(); i++) {
-            for (int j = i + 1; j < previousList.size(); j++) {
-                Set<String> candidate = new TreeSet<>(previousList.get(i));
-                candidate.addAll(previousList.get(j));
-
-                if (candidate.size() == previousList.get(i).size() + 1) {
-                    candidates.add(candidate);
-                }
-            }
-        }
+        return generateCandidates(previousItemsets);
+    }
 
-        return candidates;
+    @Deprecated
+    public List<int[]> generateCandidatesWithLex(List<int[]> previousItemsets) {
+        return generateCandidates(previousItemsets);
     }
 
     // Step 3: Count support for candidates
     public Map<Set<String>, Integer> countSupport(Set<Set<String>> candidates) {
+        ItemDictionary dictionary = database.getDictionary();
+        List<int[]> encoded = new ArrayList<>(candidates.size());
+        for (Set<String> candidate : candidates) {
+            int[] itemset = dictionary.encode(candidate);
+            // Candidates with an unknown item cannot be supported by any transaction
+            if (itemset != null) {
+                encoded.add(itemset);
+            }
+        }
+
+        int[] counts = countSupport(encoded);
         Map<Set<String>, Integer> supportCount = new HashMap<>();
-        for (Transaction transaction : database.getTransactions()){
-            Set<String> transactionItems = transaction.getItems();
-            for(Set<String> candidate: candidates){
-                if(transactionItems.containsAll(candidate)){
-                    supportCount.put(candidate,supportCount.getOrDefault(candidate,0)+1);
-                }
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                supportCount.put(dictionary.decode(encoded.get(c)), counts[c]);
             }
         }
         return supportCount;
     }
 
+    // Step 3 (int form): counts[c] is the support of candidates.get(c)
+    public int[] countSupport(List<int[]> candidates) {
+        return countSupport(database, candidates);
+    }
+
+    private int[] countSupport(Database projection, List<int[]> candidates) {
+        return SupportCounter.forCandidates(projection, candidates).count(projection, threads);
+    }
+
     // Step 4: Filter candidates by support
     public Map<Set<String>, Integer> filterCandidates(Map<Set<String>, Integer> candidates) {
         Map<Set<String>, Integer> frequentItemsets = new HashMap<>();
@@ -101,84 +136,139 @@ public class Apriori {
 
     // Main method to run Apriori
     public List<Map<Set<String>, Integer>> run() {
-        List<Map<Set<String>, Integer>> allFrequentItemsets = new ArrayList<>();
-        Set<Set<String>> currentCandidates = new HashSet<>();
-
-        // Step 1: Generate frequent 1-itemsets
-        Map<Set<String>, Integer> frequent1Itemsets = generateFrequentItemsets();
-
-        allFrequentItemsets.add(frequent1Itemsets);
-        currentCandidates = frequent1Itemsets.keySet();
-        // Step 2: Iteratively generate higher-order frequent itemsets
-        while (!currentCandidates.isEmpty()) {
-            Set<Set<String>> candidates = generateCandidates(currentCandidates);
-            Map<Set<String>, Integer> supportCounts = countSupport(candidates);
-            Map<Set<String>, Integer> frequentItemsets = filterCandidates(supportCounts);
-            if (!frequentItemsets.isEmpty()) {
-                allFrequentItemsets.add(frequentItemsets);
-                currentCandidates = frequentItemsets.keySet();
-            } else {
-                break;
-            }
-        }
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
 
-        return allFrequentItemsets;
+    // Push every frequent itemset to sink instead of keeping them all in memory
+    public void run(ItemsetSink sink) {
+        if (constraints != null) {
+            runConstrained(sink);
+        } else if (sampleFraction < 1) {
+            runOnSample(sink);
+        } else {
+            runLevelWise(sink);
+        }
     }
 
+    // Same run as run(), whose candidate generation is already lexicographic (see generateCandidatesWithLex)
+    @Deprecated
     public List<Map<Set<String>, Integer>> runUsingOrdLex() {
-        List<Map<Set<String>, Integer>> allFrequentItemsets = new ArrayList<>();
-        Set<Set<String>> currentCandidates = new HashSet<>();
-
-        // Step 1: Generate frequent 1-itemsets
-        Map<Set<String>, Integer> frequent1Itemsets = generateFrequentItemsets();
-        allFrequentItemsets.add(frequent1Itemsets);
-
-        currentCandidates = frequent1Itemsets.keySet();
-
-        // Step 2: Iteratively generate higher-order frequent itemsets
-        while (!currentCandidates.isEmpty()) {
-            Set<Set<String>> candidates = generateCandidatesWithLex(currentCandidates);
-            Map<Set<String>, Integer> supportCounts = countSupport(candidates);
-            Map<Set<String>, Integer> frequentItemsets = filterCandidates(supportCounts);
-
-            if (!frequentItemsets.isEmpty()) {
-                allFrequentItemsets.add(frequentItemsets);
-                currentCandidates = frequentItemsets.keySet();
-            } else {
-                break;
-            }
-        }
+        return run();
+    }
+
+    @Deprecated
+    public void runUsingOrdLex(ItemsetSink sink) {
+        run(sink);
+    }
+
+    // Same thresholds as the full run: ceil on level 1, floor on the higher levels
+    private void runConstrained(ItemsetSink sink) {
+        int minCount1 = (int) Math.ceil(minSupport * database.size());
+        int minCount = (int) (minSupport * database.size());
+        constraints.mine(database, minCount1, minCount, threads, sink);
+    }
 
-        return allFrequentItemsets;
+    // Same thresholds as the full run: ceil on level 1, floor on the higher levels
+    private void runOnSample(ItemsetSink sink) {
+        sampling = new Toivonen(database, sampleFraction, sampleSeed);
+        Apriori sampleApriori = new Apriori(sampling.getSample(), sampling.lowerSupport(minSupport));
+        sampleApriori.setThreads(threads);
+        List<Map<Set<String>, Integer>> sampleItemsets = sampleApriori.run();
+        int minCount1 = (int) Math.ceil(minSupport * database.size());
+        int minCount = (int) (minSupport * database.size());
+        sampling.verify(sampleItemsets, k -> k == 1 ? minCount1 : minCount, threads, sink);
     }
 
-    // load datasets
+    // Level-wise search on item ids; only the current level is kept, every frequent itemset goes to sink
+    private void runLevelWise(ItemsetSink sink) {
+        ItemDictionary dictionary = database.getDictionary();
+        int minSupportCount = (int)(minSupport * database.size());
+        sink.open(dictionary);
+        try {
+            // Step 1: Generate frequent 1-itemsets
+            List<int[]> currentItemsets = generateFrequent1Itemsets();
+            for (int[] itemset : currentItemsets) {
+                sink.onItemset(itemset, dictionary.getFrequency(itemset[0]));
+            }
+
+            // Level 2 straight from the pair matrix of the frequent items, in the lexicographic order of the join
+            int frequentItems = currentItemsets.size();
+            if (frequentItems >= 2 && PairCounter.pairs(frequentItems) <= PairCounter.MAX_PAIRS) {
+                PairCounter pairCounter = new PairCounter(frequentItems);
+                // One counter matrix per chunk when counting in parallel
+                boolean parallel = PairCounter.pairs(frequentItems) * threads <= PairCounter.MAX_PAIRS;
+                int[] pairCounts = pairCounter.count(database, parallel ? threads : 1);
+                List<int[]> frequent = new ArrayList<>();
+                for (int a = 0; a < frequentItems; a++) {
+                    for (int b = a + 1; b < frequentItems; b++) {
+                        int support = pairCounts[pairCounter.index(a, b)];
+                        if (support > 0 && support >= minSupportCount) {
+                            int[] pair = {a, b};
+                            frequent.add(pair);
+                            sink.onItemset(pair, support);
+                        }
+                    }
+                }
+                currentItemsets = frequent;
+            }
+
+            // Step 2: Iteratively generate higher-order frequent itemsets, each level counted on the
+            // projection of the previous one (transaction reduction)
+            Database projection = database;
+            while (!currentItemsets.isEmpty()) {
+                List<int[]> candidates = generateCandidates(currentItemsets);
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                projection = projection.project(candidates);
+                int[] supportCounts = countSupport(projection, candidates);
 
-    public  static  void comparePerformance(String datasetPath, double minSupport) throws IOException {
+                List<int[]> frequent = new ArrayList<>();
+                for (int c = 0; c < supportCounts.length; c++) {
+                    // Unsupported candidates are never reported, as with the map-based counting
+                    if (supportCounts[c] > 0 && supportCounts[c] >= minSupportCount) {
+                        frequent.add(candidates.get(c));
+                        sink.onItemset(candidates.get(c), supportCounts[c]);
+                    }
+                }
+                currentItemsets = frequent;
+            }
+
+        } finally {
+            sink.close();
+        }
+    }
+
+    // Compare sequential support counting with counting on every available core. runUsingOrdLex is no
+    // longer compared: it is the same run since candidate generation became a lexicographic prefix join.
+    public static void comparePerformance(String datasetPath, double minSupport) throws IOException {
         // load datasets
+        Utils.resetPeakHeap();
         Database database = Utils.loadDataset(datasetPath);
-        // normal Apriori
+        System.out.println("Loading peak heap: " + Utils.peakHeap() / (1024 * 1024) + " MB");
+        // sequential Apriori
         long startTime = System.currentTimeMillis();
         Apriori standardApriori = new Apriori(database, minSupport);
         List<Map<Set<String>, Integer>> standardResult = standardApriori.run();
         for (int i = 0; i < standardResult.size(); i++) {
-            System.out.println("Level " + (i + 1) + ": " + standardResult.get(i));
+            System.out.println("Level " + (i + 1) + ": " + standardResult.get(i).size() + " itemsets");
         }
         long standardTime = System.currentTimeMillis() - startTime;
 
-        // optimise Apriori（by using child+lex）
+        // parallel Apriori
+        int threads = Runtime.getRuntime().availableProcessors();
         startTime = System.currentTimeMillis();
-        Apriori optimizedApriori = new Apriori(database, minSupport);
-        List<Map<Set<String>, Integer>> optimizedResult = optimizedApriori.runUsingOrdLex();
-        for (int i = 0; i < optimizedResult.size(); i++) {
-            System.out.println("Level " + (i + 1) + ": " + optimizedResult.get(i));
-        }
-        long optimizedTime = System.currentTimeMillis() - startTime;
+        Apriori parallelApriori = new Apriori(database, minSupport);
+        parallelApriori.setThreads(threads);
+        List<Map<Set<String>, Integer>> parallelResult = parallelApriori.run();
+        long parallelTime = System.currentTimeMillis() - startTime;
 
-        System.out.println("normal Apriori runtime: " + standardTime + " ms");
-        System.out.println("optimise Apriori runtime: " + optimizedTime + " ms");
+        System.out.println("sequential Apriori runtime: " + standardTime + " ms");
+        System.out.println("parallel Apriori runtime (" + threads + " threads): " + parallelTime + " ms");
 
         // Verify that the results are consistent
-        System.out.println("if the results are same: " + standardResult.equals(optimizedResult));
+        System.out.println("if the results are same: " + standardResult.equals(parallelResult));
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+import java.util.*;
+
+// Apriori-gen candidate generation on sorted int itemsets:
+// join the (k-1)-itemsets sharing their first k-2 items, then prune every candidate
+// that has an infrequent (k-1)-subset.
+public class AprioriGen {
+
+    public static List<int[]> generate(Collection<int[]> previousItemsets) {
+        List<int[]> previousList = new ArrayList<>(previousItemsets);
+        previousList.sort(Arrays::compare);
+
+        Set<Itemset> previousLookup = new HashSet<>(previousList.size() * 2);
+        for (int[] itemset : previousList) {
+            previousLookup.add(new Itemset(itemset));
+        }
+
+        List<int[]> candidates = new ArrayList<>();
+        for (int i = 0; i < previousList.size(); i++) {
+            int[] first = previousList.get(i);
+            int k = first.length + 1;
+            // Itemsets sharing the (k-2)-prefix of first are contiguous in lexicographic order
+            for (int j = i + 1; j < previousList.size(); j++) {
+                int[] second = previousList.get(j);
+                if (!samePrefix(first, second, k - 2)) {
+                    break;
+                }
+                int[] candidate = Arrays.copyOf(first, k);
+                candidate[k - 1] = second[k - 2];
+                if (allSubsetsFrequent(candidate, previousLookup)) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean samePrefix(int[] a, int[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The two subsets dropping one of the last two items are the joined itemsets themselves
+    private static boolean allSubsetsFrequent(int[] candidate, Set<Itemset> previousLookup) {
+        int[] subset = new int[candidate.length - 1];
+        for (int drop = 0; drop < candidate.length - 2; drop++) {
+            for (int i = 0, n = 0; i < candidate.length; i++) {
+                if (i != drop) {
+                    subset[n++] = candidate[i];
+                }
+            }
+            if (!previousLookup.contains(new Itemset(subset))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Apriori-gen over item labels, through a dictionary local to the given itemsets
+    public static Set<Set<String>> generateFromLabels(Set<Set<String>> previousItemsets) {
+        Map<String, Integer> labelCounts = new HashMap<>();
+        for (Set<String> itemset : previousItemsets) {
+            for (String item : itemset) {
+                labelCounts.merge(item, 1, Integer::sum);
+            }
+        }
+        ItemDictionary dictionary = new ItemDictionary(labelCounts);
+
+        List<int[]> encoded = new ArrayList<>(previousItemsets.size());
+        for (Set<String> itemset : previousItemsets) {
+            encoded.add(dictionary.encode(itemset));
+        }
+
+        Set<Set<String>> candidates = new HashSet<>();
+        for (int[] candidate : generate(encoded)) {
+            candidates.add(dictionary.decode(candidate));
+        }
+        return candidates;
+    }
+}
@@ -1,108 +1,114 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 
 public class AprioriQ5 {
     private double minSupport; // Minimum support threshold
     private int minItemsetSize; // Minimum size of frequent itemsets
+    private int maxItemsetSize; // Maximum size of frequent itemsets
     private Database database;
+    private int threads = 1; // Threads used for support counting
 
     public AprioriQ5(Database database, double minSupport, int minItemsetSize) {
+        this(database, minSupport, minItemsetSize, Integer.MAX_VALUE);
+    }
+
+    public AprioriQ5(Database database, double minSupport, int minItemsetSize, int maxItemsetSize) {
         this.database = database;
         this.minSupport = minSupport;
         this.minItemsetSize = minItemsetSize;
+        this.maxItemsetSize = maxItemsetSize;
+    }
+
+    // Number of threads used by countSupport
+    public void setThreads(int threads) {
+        this.threads = threads;
     }
 
     // Step 1: Generate frequent 1-itemsets
     public Map<Set<String>, Integer> generateFrequentItemsets() {
         Map<Set<String>, Integer> frequentItemsets = new HashMap<>();
-
-        for (Transaction transaction : database.getTransactions()) {
-            for (String item : transaction.getItems()) {
-                Set<String> itemSet = Set.of(item);
-                frequentItemsets.put(itemSet, frequentItemsets.getOrDefault(itemSet, 0) + 1);
-            }
+        ItemDictionary dictionary = database.getDictionary();
+        for (int[] itemset : generateFrequent1Itemsets()) {
+            frequentItemsets.put(dictionary.decode(itemset), dictionary.getFrequency(itemset[0]));
         }
 
+        return frequentItemsets;
+    }
+
+    // Step 1 (int form): item supports come straight from the item dictionary
+    private List<int[]> generateFrequent1Itemsets() {
+        ItemDictionary dictionary = database.getDictionary();
+
         // Filter by minSupport
         int minCount = (int) Math.ceil(minSupport * database.size());
-        frequentItemsets.entrySet().removeIf(entry -> entry.getValue() < minCount);
+        List<int[]> frequentItemsets = new ArrayList<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (dictionary.getFrequency(id) >= minCount) {
+                frequentItemsets.add(new int[]{id});
+            }
+        }
 
         return frequentItemsets;
     }
 
     // Step 2: Generate candidate k-itemsets from (k-1)-itemsets
     public Set<Set<String>> generateCandidates(Set<Set<String>> previousItemsets) {
-        Set<Set<String>> candidates = new HashSet<>();
-        List<Set<String>> previousList = new ArrayList<>(previousItemsets);
-
-        for (int i = 0; i < previousList.size(); i++) {
-            for (int j = i + 1; j < previousList.size(); j++) {
-                Set<String> candidate = new HashSet<>(previousList.get(i));
-                candidate.addAll(previousList.get(j));
-
-                if (candidate.size() == previousList.get(i).size() + 1) {
-                    candidates.add(candidate);
-                }
-            }
-        }
+        return AprioriGen.generateFromLabels(previousItemsets);
+    }
 
-        return candidates;
+    // Step 2 (int form): prefix join of the sorted (k-1)-itemsets with subset pruning
+    public List<int[]> generateCandidates(List<int[]> previousItemsets) {
+        return AprioriGen.generate(previousItemsets);
     }
 
-    // Run Apriori with the Child Operator Based on Lexicographical Order
+    // Child Operator Based on Lexicographical Order: the prefix join of generateCandidates already walks
+    // the itemsets in lexicographic order, so this is the same generation
+    @Deprecated
     public Set<Set<String>> generateCandidatesWithLex(Set<Set<String>> previousItemsets) {
-        Set<Set<String>> candidates = new HashSet<>();
-        List<Set<String>> previousList = new ArrayList<>(previousItemsets);
-
-        // Sort itemsets lexicographically
-        previousList.sort((set1, set2) -> {
-            List<String> list1 = new ArrayList<>(set1);
-            List<String> list2 = new ArrayList<>(set2);
-            Collections.sort(list1);
-            Collections.sort(list2);
-            return list1.toString().compareTo(list2.toString());
-        });
-
-        for (int i = 0; i < previousList.size(); i++) {
-            for (int j = i + 1; j < previousList.size(); j++) {
-                Set<String> candidate = new TreeSet<>(previousList.get(i));
-                candidate.addAll(previousList.get(j));
-
-                if (candidate.size() == previousList.get(i).size() + 1) {
-                    candidates.add(candidate);
-                }
-            }
-        }
+        return generateCandidates(previousItemsets);
+    }
 
-        return candidates;
+    @Deprecated
+    public List<int[]> generateCandidatesWithLex(List<int[]> previousItemsets) {
+        return generateCandidates(previousItemsets);
     }
 
     // Step 3: Count support for candidates
     public Map<Set<String>, Integer> countSupport(Set<Set<String>> candidates) {
-        Map<Set<String>, Integer> supportCount = new HashMap<>();
+        ItemDictionary dictionary = database.getDictionary();
+        List<int[]> encoded = new ArrayList<>(candidates.size());
+        for (Set<String> candidate : candidates) {
+            int[] itemset = dictionary.encode(candidate);
+            // Candidates with an unknown item cannot be supported by any transaction
+            if (itemset != null) {
+                encoded.add(itemset);
+            }
+        }
 
-        for (Transaction transaction : database.getTransactions()) {
-            Set<String> transactionItems = transaction.getItems();
-            for (Set<String> candidate : candidates) {
-                if (transactionItems.containsAll(candidate)) {
-                    supportCount.put(candidate, supportCount.getOrDefault(candidate, 0) + 1);
-                }
+        int[] counts = countSupport(encoded);
+        Map<Set<String>, Integer> supportCount = new HashMap<>();
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                supportCount.put(dictionary.decode(encoded.get(c)), counts[c]);
             }
         }
 
         return supportCount;
     }
 
+    // Step 3 (int form): counts[c] is the support of candidates.get(c)
+    public int[] countSupport(List<int[]> candidates) {
+        return SupportCounter.forCandidates(database, candidates).count(database, threads);
+    }
+
     // Step 4: Filter candidates by support and size
     public Map<Set<String>, Integer> filterCandidates(Map<Set<String>, Integer> candidates) {
         Map<Set<String>, Integer> frequentItemsets = new HashMap<>();
         int minCount = (int) (minSupport * database.size());
 
         for (Map.Entry<Set<String>, Integer> entry : candidates.entrySet()) {
-            if (entry.getValue() >= minCount && entry.getKey().size() >= minItemsetSize) {
-                System.out.println("11111");
+            int size = entry.getKey().size();
+            if (entry.getValue() >= minCount && size >= minItemsetSize && size <= maxItemsetSize) {
                 frequentItemsets.put(entry.getKey(), entry.getValue());
             }
         }
@@ -112,85 +118,104 @@ public class AprioriQ5 {
 
     // Main method to run Apriori
     public List<Map<Set<String>, Integer>> run() {
-        List<Map<Set<String>, Integer>> allFrequentItemsets = new ArrayList<>();
-        Set<Set<String>> currentCandidates = new HashSet<>();
-
-        // Step 1: Generate frequent 1-itemsets
-        Map<Set<String>, Integer> frequent1Itemsets = generateFrequentItemsets();
-        allFrequentItemsets.add(frequent1Itemsets);
-
-        currentCandidates = frequent1Itemsets.keySet();
-
-        // Step 2: Iteratively generate higher-order frequent itemsets
-        while (!currentCandidates.isEmpty()) {
-            Set<Set<String>> candidates = generateCandidates(currentCandidates);
-            Map<Set<String>, Integer> supportCounts = countSupport(candidates);
-            Map<Set<String>, Integer> frequentItemsets = filterCandidates(supportCounts);
-
-            if (!frequentItemsets.isEmpty()) {
-                allFrequentItemsets.add(frequentItemsets);
-                currentCandidates = frequentItemsets.keySet();
-            } else {
-                break;
-            }
-        }
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
 
-        return allFrequentItemsets;
+    // Push every frequent itemset within the size bounds to sink
+    public void run(ItemsetSink sink) {
+        runLevelWise(sink);
     }
 
+    // Same run as run(), whose candidate generation is already lexicographic (see generateCandidatesWithLex)
+    @Deprecated
     public List<Map<Set<String>, Integer>> runUsingOrdLex() {
-        List<Map<Set<String>, Integer>> allFrequentItemsets = new ArrayList<>();
-        Set<Set<String>> currentCandidates = new HashSet<>();
-
-        // Step 1: Generate frequent 1-itemsets
-        Map<Set<String>, Integer> frequent1Itemsets = generateFrequentItemsets();
-        allFrequentItemsets.add(frequent1Itemsets);
-
-        currentCandidates = frequent1Itemsets.keySet();
-
-        // Step 2: Iteratively generate higher-order frequent itemsets
-        while (!currentCandidates.isEmpty()) {
-            Set<Set<String>> candidates = generateCandidatesWithLex(currentCandidates);
-            Map<Set<String>, Integer> supportCounts = countSupport(candidates);
-            Map<Set<String>, Integer> frequentItemsets = filterCandidates(supportCounts);
-
-            if (!frequentItemsets.isEmpty()) {
-                allFrequentItemsets.add(frequentItemsets);
-                currentCandidates = frequentItemsets.keySet();
-            } else {
-                break;
+        return run();
+    }
+
+    @Deprecated
+    public void runUsingOrdLex(ItemsetSink sink) {
+        run(sink);
+    }
+
+    // Level-wise search on item ids, bounded by the itemset sizes:
+    // - an itemset of at least minItemsetSize items only occurs in transactions at least that long,
+    //   so shorter transactions are dropped before counting (supports stay exact for the reported sizes);
+    // - levels below minItemsetSize are still mined, as seeds for the next level, but never reported;
+    // - no candidate is generated beyond maxItemsetSize.
+    // The sink is opened with the dictionary of the mined database, which may differ from database's.
+    private void runLevelWise(ItemsetSink sink) {
+        Database mined = minItemsetSize > 1 ? database.withMinTransactionLength(minItemsetSize) : database;
+        ItemDictionary dictionary = mined.getDictionary();
+        int minCount1 = (int) Math.ceil(minSupport * database.size());
+        int minCount = (int) (minSupport * database.size());
+        sink.open(dictionary);
+        try {
+            // Step 1: Generate frequent 1-itemsets
+            List<int[]> currentItemsets = new ArrayList<>();
+            for (int id = 0; id < dictionary.size() && dictionary.getFrequency(id) >= minCount1; id++) {
+                currentItemsets.add(new int[]{id});
+                if (minItemsetSize <= 1 && maxItemsetSize >= 1) {
+                    sink.onItemset(new int[]{id}, dictionary.getFrequency(id));
+                }
             }
-        }
 
-        return allFrequentItemsets;
+            // Step 2: Iteratively generate higher-order frequent itemsets, up to maxItemsetSize
+            for (int k = 2; k <= maxItemsetSize && !currentItemsets.isEmpty(); k++) {
+                List<int[]> candidates = generateCandidates(currentItemsets);
+                int[] supportCounts = SupportCounter.forCandidates(mined, candidates).count(mined, threads);
+
+                List<int[]> frequent = new ArrayList<>();
+                for (int c = 0; c < supportCounts.length; c++) {
+                    if (supportCounts[c] > 0 && supportCounts[c] >= minCount) {
+                        frequent.add(candidates.get(c));
+                        if (k >= minItemsetSize) {
+                            sink.onItemset(candidates.get(c), supportCounts[c]);
+                        }
+                    }
+                }
+                currentItemsets = frequent;
+            }
+
+        } finally {
+            sink.close();
+        }
     }
 
-    // Compare performance between standard Apriori and optimized Apriori
+    // Compare the size-bounded run with a full Apriori run filtered by size afterwards
     public static void comparePerformance(String datasetPath, double minSupport, int minItemsetSize) throws IOException {
         // Load dataset
+        Utils.resetPeakHeap();
         Database database = Utils.loadDataset(datasetPath);
-        // Standard Apriori
+        System.out.println("Loading peak heap: " + Utils.peakHeap() / (1024 * 1024) + " MB");
+        // Full Apriori, then keep the large enough levels
         long startTime = System.currentTimeMillis();
-        AprioriQ5 standardApriori = new AprioriQ5(database, minSupport, minItemsetSize);
-        List<Map<Set<String>, Integer>> standardResult = standardApriori.run();
-        for (int i = 0; i < standardResult.size(); i++) {
-            System.out.println("Level " + (i + 1) + ": " + standardResult.get(i));
+        Map<Set<String>, Integer> fullResult = new HashMap<>();
+        for (Map<Set<String>, Integer> level : new Apriori(database, minSupport).run()) {
+            level.forEach((itemset, support) -> {
+                if (itemset.size() >= minItemsetSize) {
+                    fullResult.put(itemset, support);
+                }
+            });
         }
-        long standardTime = System.currentTimeMillis() - startTime;
+        long fullTime = System.currentTimeMillis() - startTime;
 
-        // Optimized Apriori (using child+lex)
+        // Size-bounded AprioriQ5
         startTime = System.currentTimeMillis();
-        AprioriQ5 optimizedApriori = new AprioriQ5(database, minSupport, minItemsetSize);
-        List<Map<Set<String>, Integer>> optimizedResult = optimizedApriori.runUsingOrdLex();
-        for (int i = 0; i < optimizedResult.size(); i++) {
-            System.out.println("Level " + (i + 1) + ": " + optimizedResult.get(i));
+        AprioriQ5 boundedApriori = new AprioriQ5(database, minSupport, minItemsetSize);
+        List<Map<Set<String>, Integer>> boundedResult = boundedApriori.run();
+        long boundedTime = System.currentTimeMillis() - startTime;
+        Map<Set<String>, Integer> boundedItemsets = new HashMap<>();
+        for (int i = minItemsetSize - 1; i < boundedResult.size(); i++) {
+            System.out.println("Level " + (i + 1) + ": " + boundedResult.get(i).size() + " itemsets");
+            boundedItemsets.putAll(boundedResult.get(i));
         }
-        long optimizedTime = System.currentTimeMillis() - startTime;
 
-        System.out.println("Standard AprioriQ5 runtime: " + standardTime + " ms");
-        System.out.println("Optimized AprioriQ5 runtime: " + optimizedTime + " ms");
+        System.out.println("Full Apriori then filter runtime: " + fullTime + " ms");
+        System.out.println("Size-bounded AprioriQ5 runtime: " + boundedTime + " ms");
 
         // Verify that the results are consistent
-        System.out.println("Are the results the same? " + standardResult.equals(optimizedResult));
+        System.out.println("Are the results the same? " + fullResult.equals(boundedItemsets));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+import java.util.Set;
+
+// Rule antecedent => consequent with its interest measures, all relative to transactionCount transactions
+public class AssociationRule {
+    private final Set<String> antecedent;
+    private final Set<String> consequent;
+    private final int support; // Transactions containing antecedent and consequent
+    private final double confidence;
+    private final double lift;
+    private final double leverage;
+    private final double conviction;
+
+    public AssociationRule(Set<String> antecedent, Set<String> consequent, int support, int antecedentSupport,
+                           int consequentSupport, int transactionCount) {
+        this.antecedent = antecedent;
+        this.consequent = consequent;
+        this.support = support;
+        double consequentFrequency = (double) consequentSupport / transactionCount;
+        this.confidence = (double) support / antecedentSupport;
+        this.lift = confidence / consequentFrequency;
+        this.leverage = (double) support / transactionCount
+                - (double) antecedentSupport / transactionCount * consequentFrequency;
+        // Infinite for exact rules
+        this.conviction = confidence == 1 ? Double.POSITIVE_INFINITY : (1 - consequentFrequency) / (1 - confidence);
+    }
+
+    public Set<String> getAntecedent() {
+        return antecedent;
+    }
+
+    public Set<String> getConsequent() {
+        return consequent;
+    }
+
+    public int getSupport() {
+        return support;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public double getLift() {
+        return lift;
+    }
+
+    public double getLeverage() {
+        return leverage;
+    }
+
+    public double getConviction() {
+        return conviction;
+    }
+
+    @Override
+    public String toString() {
+        return antecedent + " => " + consequent + String.format(" (support %d, confidence %.3f, lift %.3f, leverage %.4f, conviction %.3f)",
+                support, confidence, lift, leverage, conviction);
+    }
+}
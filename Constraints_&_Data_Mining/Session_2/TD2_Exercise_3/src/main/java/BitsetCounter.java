@@ -0,0 +1,47 @@
+import java.util.*;
+
+// Support counting on the bitset view of a dense database: every candidate becomes a mask over
+// the item ids and containment is the word-wise test (transaction & candidate) == candidate.
+public class BitsetCounter extends SupportCounter {
+    private final long[] bitsets;
+    private final int words;
+    private final long[] masks;    // Candidate c occupies masks[c * words .. (c + 1) * words)
+    private final int[] firstWord; // Words outside [firstWord, lastWord] of a candidate are empty
+    private final int[] lastWord;
+
+    public BitsetCounter(Database database, List<int[]> candidates) {
+        super(candidates.size());
+        // Build the database view up front, before any counting thread reads it
+        this.bitsets = database.getBitsets();
+        this.words = database.getWordsPerTransaction();
+        this.masks = new long[candidateCount * words];
+        this.firstWord = new int[candidateCount];
+        this.lastWord = new int[candidateCount];
+        for (int c = 0; c < candidateCount; c++) {
+            int[] candidate = candidates.get(c);
+            for (int item : candidate) {
+                masks[c * words + (item >>> 6)] |= 1L << item;
+            }
+            firstWord[c] = candidate.length == 0 ? 0 : candidate[0] >>> 6;
+            lastWord[c] = candidate.length == 0 ? -1 : candidate[candidate.length - 1] >>> 6;
+        }
+    }
+
+    @Override
+    protected void count(Database database, int from, int to, int[] counts) {
+        for (int t = from; t < to; t++) {
+            int transactionBase = t * words;
+            for (int c = 0; c < candidateCount; c++) {
+                int candidateBase = c * words;
+                boolean contained = true;
+                for (int w = firstWord[c]; w <= lastWord[c] && contained; w++) {
+                    long mask = masks[candidateBase + w];
+                    contained = (bitsets[transactionBase + w] & mask) == mask;
+                }
+                if (contained) {
+                    counts[c] += database.getWeight(t);
+                }
+            }
+        }
+    }
+}
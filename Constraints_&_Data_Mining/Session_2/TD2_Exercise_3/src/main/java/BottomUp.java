@@ -1,94 +1,141 @@
 import java.util.*;
+import java.util.function.Supplier;
 
 public class BottomUp {
     private double minSupport; // Minimum support threshold
     private Database database;
+    private int threads = 1; // Threads used for support counting
+    private double sampleFraction = 1.0; // Fraction of the transactions mined when sampling
+    private long sampleSeed;
+    private Toivonen sampling; // Last sampled run
+    private ItemsetConstraints constraints; // Constraints pushed into the search, or null
 
     public BottomUp(Database database, double minSupport) {
         this.database = database;
         this.minSupport = minSupport;
     }
 
-    // Generate all frequent itemsets using a bottom-up approach
-    public List<Map<Set<String>, Integer>> run() {
-        List<Map<Set<String>, Integer>> allFrequentItemsets = new ArrayList<>();
+    // Split support counting over several threads
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    // Mine a uniform random sample holding about fraction of the transactions at a lowered threshold,
+    // then verify it in one pass over the whole database (Toivonen). Supports are exact, but a frequent
+    // itemset can be missing from the result when isMissPossible() says so. A fraction of 1 mines everything.
+    public void setSampling(double fraction, long seed) {
+        this.sampleFraction = fraction;
+        this.sampleSeed = seed;
+    }
+
+    // Report only the frequent itemsets satisfying the constraints, pruning the search with them instead of
+    // filtering the result. A constrained run mines every transaction: sampling does not apply to it.
+    public void setConstraints(ItemsetConstraints constraints) {
+        this.constraints = constraints;
+    }
 
-        // Step 1: Start with single-item sets (level 1)
-        Map<Set<String>, Integer> frequent1Itemsets = generateFrequent1Itemsets();
-        allFrequentItemsets.add(frequent1Itemsets);
+    // Whether the last sampled run may have missed frequent itemsets
+    public boolean isMissPossible() {
+        return sampling != null && sampling.isMissPossible();
+    }
 
-        // Step 2: Generate higher-level itemsets bottom-up
-        Map<Set<String>, Integer> currentFrequentItemsets = frequent1Itemsets;
+    // Negative border of the last sampled run, with exact supports
+    public Map<Set<String>, Integer> getNegativeBorder() {
+        return sampling != null ? sampling.getNegativeBorder() : Map.of();
+    }
 
-        while (!currentFrequentItemsets.isEmpty()) {
-            Set<Set<String>> nextLevelCandidates = generateCandidates(currentFrequentItemsets.keySet());
-            Map<Set<String>, Integer> nextLevelFrequentItemsets = countAndFilterCandidates(nextLevelCandidates);
+    // Generate all frequent itemsets using a bottom-up approach
+    public List<Map<Set<String>, Integer>> run() {
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
 
-            if (!nextLevelFrequentItemsets.isEmpty()) {
-                allFrequentItemsets.add(nextLevelFrequentItemsets);
-                currentFrequentItemsets = nextLevelFrequentItemsets;
-            } else {
-                break;
+    // Same search, pushing every frequent itemset to sink as soon as its level is counted
+    public void run(ItemsetSink sink) {
+        if (constraints != null) {
+            int minCount = (int) Math.ceil(minSupport * database.size());
+            constraints.mine(database, minCount, minCount, threads, sink);
+            return;
+        }
+        if (sampleFraction < 1) {
+            runOnSample(sink);
+            return;
+        }
+        sink.open(database.getDictionary());
+        try {
+            // Step 1: Start with single-item sets (level 1)
+            Map<Itemset, Integer> currentFrequentItemsets = generateFrequent1Itemsets();
+            emit(currentFrequentItemsets, sink);
+
+            // Step 2: Generate higher-level itemsets bottom-up, each level counted on the projection
+            // of the previous one (transaction reduction)
+            Database projection = database;
+            while (!currentFrequentItemsets.isEmpty()) {
+                List<int[]> nextLevelCandidates = generateCandidates(currentFrequentItemsets.keySet());
+                if (nextLevelCandidates.isEmpty()) {
+                    break;
+                }
+                projection = projection.project(nextLevelCandidates);
+                currentFrequentItemsets = countAndFilterCandidates(projection, nextLevelCandidates);
+                emit(currentFrequentItemsets, sink);
             }
+
+        } finally {
+            sink.close();
         }
+    }
 
-        return allFrequentItemsets;
+    private void runOnSample(ItemsetSink sink) {
+        sampling = new Toivonen(database, sampleFraction, sampleSeed);
+        BottomUp sampleBottomUp = new BottomUp(sampling.getSample(), sampling.lowerSupport(minSupport));
+        sampleBottomUp.setThreads(threads);
+        int minCount = (int) Math.ceil(minSupport * database.size());
+        sampling.verify(sampleBottomUp.run(), k -> minCount, threads, sink);
     }
 
-    // Generate frequent 1-itemsets
-    private Map<Set<String>, Integer> generateFrequent1Itemsets() {
-        Map<Set<String>, Integer> itemCounts = new HashMap<>();
+    // Generate frequent 1-itemsets: item supports are already known from the item dictionary
+    private Map<Itemset, Integer> generateFrequent1Itemsets() {
+        ItemDictionary dictionary = database.getDictionary();
+        Map<Itemset, Integer> itemCounts = new LinkedHashMap<>();
 
-        for (Transaction transaction : database.getTransactions()) {
-            for (String item : transaction.getItems()) {
-                Set<String> itemSet = Set.of(item);
-                itemCounts.put(itemSet, itemCounts.getOrDefault(itemSet, 0) + 1);
-            }
+        for (int id = 0; id < dictionary.size(); id++) {
+            itemCounts.put(new Itemset(new int[]{id}), dictionary.getFrequency(id));
         }
 
         return filterByMinSupport(itemCounts);
     }
 
     // Generate candidate itemsets for the next level
-    private Set<Set<String>> generateCandidates(Set<Set<String>> previousItemsets) {
-        Set<Set<String>> candidates = new HashSet<>();
-        List<Set<String>> itemsetList = new ArrayList<>(previousItemsets);
-
-        for (int i = 0; i < itemsetList.size(); i++) {
-            for (int j = i + 1; j < itemsetList.size(); j++) {
-                Set<String> unionSet = new HashSet<>(itemsetList.get(i));
-                unionSet.addAll(itemsetList.get(j));
+    private List<int[]> generateCandidates(Set<Itemset> previousItemsets) {
+        List<int[]> itemsetList = new ArrayList<>(previousItemsets.size());
 
-                if (unionSet.size() == itemsetList.get(i).size() + 1) {
-                    candidates.add(unionSet);
-                }
-            }
+        for (Itemset itemset : previousItemsets) {
+            itemsetList.add(itemset.getItems());
         }
 
-        return candidates;
+        return AprioriGen.generate(itemsetList);
     }
 
     // Count and filter candidates by support
-    private Map<Set<String>, Integer> countAndFilterCandidates(Set<Set<String>> candidates) {
-        Map<Set<String>, Integer> supportCounts = new HashMap<>();
+    private Map<Itemset, Integer> countAndFilterCandidates(Database projection, List<int[]> candidates) {
+        int[] supportCounts = SupportCounter.forCandidates(projection, candidates).count(projection, threads);
 
-        for (Transaction transaction : database.getTransactions()) {
-            for (Set<String> candidate : candidates) {
-                if (transaction.getItems().containsAll(candidate)) {
-                    supportCounts.put(candidate, supportCounts.getOrDefault(candidate, 0) + 1);
-                }
+        Map<Itemset, Integer> counted = new LinkedHashMap<>();
+        for (int c = 0; c < supportCounts.length; c++) {
+            if (supportCounts[c] > 0) {
+                counted.put(new Itemset(candidates.get(c)), supportCounts[c]);
             }
         }
-
-        return filterByMinSupport(supportCounts);
+        return filterByMinSupport(counted);
     }
 
     // Filter itemsets by minimum support
-    private Map<Set<String>, Integer> filterByMinSupport(Map<Set<String>, Integer> itemCounts) {
-        Map<Set<String>, Integer> frequentItemsets = new HashMap<>();
+    private Map<Itemset, Integer> filterByMinSupport(Map<Itemset, Integer> itemCounts) {
+        Map<Itemset, Integer> frequentItemsets = new LinkedHashMap<>();
         int minCount = (int) Math.ceil(minSupport * database.size());
 
-        for (Map.Entry<Set<String>, Integer> entry : itemCounts.entrySet()) {
+        for (Map.Entry<Itemset, Integer> entry : itemCounts.entrySet()) {
             if (entry.getValue() >= minCount) {
                 frequentItemsets.put(entry.getKey(), entry.getValue());
             }
@@ -97,23 +144,53 @@ public class BottomUp {
         return frequentItemsets;
     }
 
-    // Compare performance between Apriori and Bottom-Up
+    private static void emit(Map<Itemset, Integer> itemsets, ItemsetSink sink) {
+        for (Map.Entry<Itemset, Integer> entry : itemsets.entrySet()) {
+            sink.onItemset(entry.getKey().getItems(), entry.getValue());
+        }
+    }
+
+    // Compare performance between Apriori, Bottom-Up, Eclat, dEclat and the Choco model: time and peak heap of each run
     public static void comparePerformance(Database db, double minSupport) {
         Apriori apriori = new Apriori(db, minSupport);
         BottomUp bottomUp = new BottomUp(db, minSupport);
+        Eclat eclat = new Eclat(db, minSupport);
+        DEclat dEclat = new DEclat(db, minSupport);
+
+        List<Map<Set<String>, Integer>> aprioriResult = measure("Apriori", apriori::run);
+        List<Map<Set<String>, Integer>> bottomUpResult = measure("Bottom-Up", bottomUp::run);
+        List<Map<Set<String>, Integer>> eclatResult = measure("Eclat", eclat::run);
+        List<Map<Set<String>, Integer>> dEclatResult = measure("dEclat", dEclat::run);
+        // The model's bitsets are built in the constructor, so it is timed too
+        List<Map<Set<String>, Integer>> chocoResult = measure("Choco", () -> new ChocoMiner(db, minSupport).run());
+
+        System.out.println("Eclat matches Bottom-Up: " + eclatResult.equals(bottomUpResult));
+        System.out.println("dEclat matches Bottom-Up: " + dEclatResult.equals(bottomUpResult)
+                + " (" + dEclat.getDiffsetClasses() + " classes with diffsets, "
+                + dEclat.getTidsetClasses() + " with tid-lists)");
+        System.out.println("Choco matches Bottom-Up: " + chocoResult.equals(bottomUpResult));
+
+        System.out.println("Apriori Result: " + countItemsets(aprioriResult) + " itemsets");
+        System.out.println("Bottom-Up Result: " + countItemsets(bottomUpResult) + " itemsets");
+    }
 
-        long startApriori = System.currentTimeMillis();
-        List<Map<Set<String>, Integer>> aprioriResult = apriori.run();
-        long endApriori = System.currentTimeMillis();
-
-        long startBottomUp = System.currentTimeMillis();
-        List<Map<Set<String>, Integer>> bottomUpResult = bottomUp.run();
-        long endBottomUp = System.currentTimeMillis();
-
-        System.out.println("Apriori Time: " + (endApriori - startApriori) + "ms");
-        System.out.println("Bottom-Up Time: " + (endBottomUp - startBottomUp) + "ms");
+    // Run a miner and print its time and how far the heap rose above the data live before it
+    // (the database and the previous results), its own result included
+    private static List<Map<Set<String>, Integer>> measure(String name, Supplier<List<Map<Set<String>, Integer>>> miner) {
+        Utils.resetPeakHeap();
+        long baseline = Utils.peakHeap();
+        long start = System.currentTimeMillis();
+        List<Map<Set<String>, Integer>> result = miner.get();
+        long time = System.currentTimeMillis() - start;
+        System.out.println(name + " Time: " + time + "ms, peak heap +" + (Utils.peakHeap() - baseline) / (1024 * 1024) + " MB");
+        return result;
+    }
 
-        System.out.println("Apriori Result: " + aprioriResult);
-        System.out.println("Bottom-Up Result: " + bottomUpResult);
+    private static int countItemsets(List<Map<Set<String>, Integer>> levels) {
+        int count = 0;
+        for (Map<Set<String>, Integer> level : levels) {
+            count += level.size();
+        }
+        return count;
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+import java.util.*;
+
+// Prefix trie over a set of distinct candidate itemsets (sorted id arrays), built once per level.
+// Every node keeps its children as a sorted, contiguous run of edges, so a transaction is counted
+// by merging its items against the edges and descending only into the prefixes it contains.
+public class CandidateTrie extends SupportCounter {
+    private int[] edgeItem = new int[16];
+    private int[] edgeTarget = new int[16];
+    private int edges;
+    private int[] firstEdge = new int[16];
+    private int[] edgeCount = new int[16];
+    private int[] candidateAt = new int[16]; // Candidate ending at this node, or -1
+    private int[] minDepth = new int[16];    // Fewest items still needed to reach a candidate below
+    private int nodes;
+
+    public CandidateTrie(List<int[]> candidates) {
+        super(candidates.size());
+        Integer[] order = new Integer[candidateCount];
+        for (int c = 0; c < candidateCount; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compare(candidates.get(a), candidates.get(b)));
+        build(candidates, order, 0, candidateCount, 0);
+    }
+
+    // Create the node for order[lo, hi), the candidates sharing their first depth items
+    private int build(List<int[]> candidates, Integer[] order, int lo, int hi, int depth) {
+        int node = newNode();
+        // Sorted order puts the candidate equal to the prefix itself first
+        if (lo < hi && candidates.get(order[lo]).length == depth) {
+            candidateAt[node] = order[lo++];
+            minDepth[node] = 0;
+        }
+
+        int children = 0;
+        for (int i = lo; i < hi; i++) {
+            if (i == lo || candidates.get(order[i])[depth] != candidates.get(order[i - 1])[depth]) {
+                children++;
+            }
+        }
+        int first = reserveEdges(children);
+        firstEdge[node] = first;
+        edgeCount[node] = children;
+
+        for (int i = lo, e = first; i < hi; e++) {
+            int item = candidates.get(order[i])[depth];
+            int j = i;
+            while (j < hi && candidates.get(order[j])[depth] == item) {
+                j++;
+            }
+            int child = build(candidates, order, i, j, depth + 1);
+            edgeItem[e] = item;
+            edgeTarget[e] = child;
+            minDepth[node] = Math.min(minDepth[node], minDepth[child] + 1);
+            i = j;
+        }
+        return node;
+    }
+
+    @Override
+    protected void count(Database database, int from, int to, int[] counts) {
+        int[] items = database.getItemArray();
+        int[] offsets = database.getOffsets();
+        for (int t = from; t < to; t++) {
+            count(items, offsets[t], offsets[t + 1], database.getWeight(t), counts);
+        }
+    }
+
+    // Add weight to the counter of every candidate contained in the sorted slice items[from, to)
+    public void count(int[] items, int from, int to, int weight, int[] counts) {
+        walk(0, items, from, to, weight, counts);
+    }
+
+    private void walk(int node, int[] items, int from, int to, int weight, int[] counts) {
+        if (to - from < minDepth[node]) {
+            // Too few items left to complete any candidate below this node
+            return;
+        }
+        if (candidateAt[node] >= 0) {
+            counts[candidateAt[node]] += weight;
+        }
+        int e = firstEdge[node];
+        int lastEdge = e + edgeCount[node];
+        int i = from;
+        while (e < lastEdge && i < to) {
+            if (edgeItem[e] < items[i]) {
+                e++;
+            } else if (edgeItem[e] > items[i]) {
+                i++;
+            } else {
+                walk(edgeTarget[e], items, i + 1, to, weight, counts);
+                e++;
+                i++;
+            }
+        }
+    }
+
+    private int newNode() {
+        if (nodes == firstEdge.length) {
+            int capacity = nodes * 2;
+            firstEdge = Arrays.copyOf(firstEdge, capacity);
+            edgeCount = Arrays.copyOf(edgeCount, capacity);
+            candidateAt = Arrays.copyOf(candidateAt, capacity);
+            minDepth = Arrays.copyOf(minDepth, capacity);
+        }
+        candidateAt[nodes] = -1;
+        minDepth[nodes] = Integer.MAX_VALUE - 1;
+        return nodes++;
+    }
+
+    private int reserveEdges(int count) {
+        if (edges + count > edgeItem.length) {
+            int capacity = Math.max(edgeItem.length * 2, edges + count);
+            edgeItem = Arrays.copyOf(edgeItem, capacity);
+            edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+        }
+        int first = edges;
+        edges += count;
+        return first;
+    }
+}
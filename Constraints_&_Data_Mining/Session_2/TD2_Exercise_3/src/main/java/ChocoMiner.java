@@ -0,0 +1,132 @@
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.*;
+
+// Itemset mining as a constraint program: a boolean variable per frequent item says whether it is in the
+// itemset, and an integer variable holds its frequency. CoverSizePropagator ties them together with
+// bitset tid-lists and ClosurePropagator restricts the solutions to closed itemsets. Any other Choco
+// constraint posted on getModel() before run() is propagated along, so side constraints (required or
+// excluded items, lengths, costs...) prune the search instead of filtering its result.
+public class ChocoMiner {
+    private double minSupport; // Minimum support threshold
+    private Database database;
+    private boolean closed; // Only report closed itemsets
+
+    private final Model model;
+    private final BoolVar[] itemVars; // itemVars[i] is the item of id i, ids being frequent ones
+    private final IntVar frequency;
+    private final long[][] tids;
+    private Constraint closure; // Posted while closed is set
+
+    public ChocoMiner(Database database, double minSupport) {
+        this.database = database;
+        this.minSupport = minSupport;
+        int minCount = minCount();
+
+        // Ids are assigned by descending frequency: the frequent items are the ids below frequentItems
+        ItemDictionary dictionary = database.getDictionary();
+        int frequentItems = 0;
+        while (frequentItems < dictionary.size() && dictionary.getFrequency(frequentItems) >= minCount) {
+            frequentItems++;
+        }
+        int[][] tidLists = database.buildTidLists();
+        tids = new long[frequentItems][(database.size() + 63) >>> 6];
+        for (int id = 0; id < frequentItems; id++) {
+            for (int t : tidLists[id]) {
+                tids[id][t >>> 6] |= 1L << t;
+            }
+        }
+
+        model = new Model("itemset mining");
+        itemVars = new BoolVar[frequentItems];
+        for (int id = 0; id < frequentItems; id++) {
+            itemVars[id] = model.boolVar(dictionary.getItem(id));
+        }
+        if (frequentItems == 0) {
+            // No solution at all: the model is left empty and run() reports nothing
+            frequency = null;
+            return;
+        }
+        frequency = model.intVar("frequency", minCount, Math.max(minCount, database.size()));
+        new Constraint("CoverSize", new CoverSizePropagator(itemVars, frequency, tids, database.size())).post();
+        // The empty itemset is not reported
+        model.sum(itemVars, ">=", 1).post();
+    }
+
+    public void setClosed(boolean closed) {
+        this.closed = closed;
+    }
+
+    // For side constraints
+    public Model getModel() {
+        return model;
+    }
+
+    public BoolVar[] getItemVars() {
+        return itemVars;
+    }
+
+    // Variable of the item, or null when it is not frequent (no solution holds it)
+    public BoolVar getItemVar(String item) {
+        int id = database.getDictionary().getId(item);
+        return id >= 0 && id < itemVars.length ? itemVars[id] : null;
+    }
+
+    // Null when no item is frequent
+    public IntVar getFrequency() {
+        return frequency;
+    }
+
+    // Every solution, indexed by level like Apriori.run()
+    public List<Map<Set<String>, Integer>> run() {
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
+
+    // Push every solution to sink as soon as the solver finds it; the model can be solved again afterwards
+    public void run(ItemsetSink sink) {
+        if (itemVars.length == 0) {
+            sink.open(database.getDictionary());
+            sink.close();
+            return;
+        }
+        if (closed && closure == null) {
+            closure = new Constraint("Closure", new ClosurePropagator(itemVars, tids, database.size()));
+            closure.post();
+        } else if (!closed && closure != null) {
+            model.unpost(closure);
+            closure = null;
+        }
+
+        sink.open(database.getDictionary());
+        Solver solver = model.getSolver();
+        try {
+            // Items in, most frequent first: large covers are explored before they shrink
+            solver.setSearch(Search.inputOrderUBSearch(itemVars));
+            int[] itemset = new int[itemVars.length];
+            while (solver.solve()) {
+                int size = 0;
+                for (int id = 0; id < itemVars.length; id++) {
+                    if (itemVars[id].getValue() == 1) {
+                        itemset[size++] = id;
+                    }
+                }
+                sink.onItemset(Arrays.copyOf(itemset, size), frequency.getValue());
+            }
+        } finally {
+            solver.reset();
+            sink.close();
+        }
+    }
+
+    // Same threshold as BottomUp and Eclat
+    private int minCount() {
+        return Math.max(1, (int) Math.ceil(minSupport * database.size()));
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.*;
+
+// Condensed representations of the frequent itemsets, mined LCM-style: every closed itemset is reached
+// exactly once by a prefix-preserving closure extension of its parent, using tid-lists for supports.
+// Maximal itemsets are the closed ones with no frequent single-item extension.
+public class ClosedMiner {
+    private double minSupport; // Minimum support threshold
+    private Database database;
+
+    public ClosedMiner(Database database, double minSupport) {
+        this.database = database;
+        this.minSupport = minSupport;
+    }
+
+    // Closed frequent itemsets: no superset has the same support
+    public List<Map<Set<String>, Integer>> runClosed() {
+        MapSink sink = new MapSink();
+        runClosed(sink);
+        return sink.getResult();
+    }
+
+    public void runClosed(ItemsetSink sink) {
+        sink.open(database.getDictionary());
+        try {
+            mine(false, sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    // Maximal frequent itemsets: no superset is frequent
+    public List<Map<Set<String>, Integer>> runMaximal() {
+        MapSink sink = new MapSink();
+        runMaximal(sink);
+        return sink.getResult();
+    }
+
+    public void runMaximal(ItemsetSink sink) {
+        sink.open(database.getDictionary());
+        try {
+            mine(true, sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    private void mine(boolean maximalOnly, ItemsetSink sink) {
+        int minCount = minCount();
+        if (database.size() < minCount) {
+            return;
+        }
+
+        // Ids are assigned by descending frequency: the frequent items are the ids below frequentItems
+        ItemDictionary dictionary = database.getDictionary();
+        int frequentItems = 0;
+        while (frequentItems < dictionary.size() && dictionary.getFrequency(frequentItems) >= minCount) {
+            frequentItems++;
+        }
+        int[][] tidLists = database.buildTidLists();
+
+        // The root is the closure of the empty itemset: the items present in every transaction
+        int[] allTids = new int[database.size()];
+        for (int t = 0; t < allTids.length; t++) {
+            allTids[t] = t;
+        }
+        int[] counts = new int[frequentItems];
+        int[] root = closure(allTids, counts);
+        if (root.length > 0) {
+            emit(root, allTids.length, counts, minCount, maximalOnly, sink);
+        }
+        extend(root, allTids, -1, tidLists, frequentItems, minCount, maximalOnly, sink);
+    }
+
+    // Visit the closed itemsets generated from prefix by adding an item e above core
+    private void extend(int[] prefix, int[] tids, int core, int[][] tidLists, int frequentItems, int minCount,
+                        boolean maximalOnly, ItemsetSink sink) {
+        for (int e = core + 1; e < frequentItems; e++) {
+            if (Arrays.binarySearch(prefix, e) >= 0) {
+                continue;
+            }
+            int[] extensionTids = Eclat.intersect(tids, tidLists[e], minCount);
+            if (extensionTids == null) {
+                continue;
+            }
+
+            int[] counts = new int[frequentItems];
+            int[] closed = closure(extensionTids, counts);
+            // Prefix preservation: closing must not add an item below e, otherwise the itemset
+            // belongs to (and is reached from) another branch
+            if (!samePrefix(prefix, closed, e)) {
+                continue;
+            }
+            emit(closed, extensionTids.length, counts, minCount, maximalOnly, sink);
+            extend(closed, extensionTids, e, tidLists, frequentItems, minCount, maximalOnly, sink);
+        }
+    }
+
+    // Items shared by all the given transactions. counts[j] receives the support of each frequent item j
+    // among them, i.e. the support of the closure extended with j.
+    private int[] closure(int[] tids, int[] counts) {
+        int[] items = database.getItemArray();
+        int[] offsets = database.getOffsets();
+        for (int t : tids) {
+            for (int p = offsets[t]; p < offsets[t + 1] && items[p] < counts.length; p++) {
+                counts[items[p]]++;
+            }
+        }
+        int size = 0;
+        for (int count : counts) {
+            if (count == tids.length) {
+                size++;
+            }
+        }
+        int[] closed = new int[size];
+        for (int j = 0, n = 0; j < counts.length; j++) {
+            if (counts[j] == tids.length) {
+                closed[n++] = j;
+            }
+        }
+        return closed;
+    }
+
+    // Whether prefix and closed contain the same items below e
+    private static boolean samePrefix(int[] prefix, int[] closed, int e) {
+        int i = 0, j = 0;
+        while (j < closed.length && closed[j] < e) {
+            if (i == prefix.length || prefix[i] != closed[j]) {
+                return false;
+            }
+            i++;
+            j++;
+        }
+        return i == prefix.length || prefix[i] >= e;
+    }
+
+    private void emit(int[] itemset, int support, int[] counts, int minCount, boolean maximalOnly,
+                      ItemsetSink sink) {
+        if (maximalOnly) {
+            for (int j = 0; j < counts.length; j++) {
+                if (counts[j] >= minCount && counts[j] < support) {
+                    return;
+                }
+            }
+        }
+        sink.onItemset(itemset, support);
+    }
+
+    // Same threshold as BottomUp; an itemset needs at least one supporting transaction
+    private int minCount() {
+        return Math.max(1, (int) Math.ceil(minSupport * database.size()));
+    }
+
+    // Lazily enumerate every frequent itemset covered by a condensed result (from runClosed or runMaximal),
+    // each exactly once. With closed itemsets the support is exact: the highest support among the
+    // closed supersets. Maximal itemsets do not keep that information, so the value is only a lower bound.
+    public static Iterator<Map.Entry<Set<String>, Integer>> expand(List<Map<Set<String>, Integer>> condensed) {
+        List<Set<String>> itemsets = new ArrayList<>();
+        List<Integer> supports = new ArrayList<>();
+        Map<String, Integer> labelCounts = new HashMap<>();
+        for (Map<Set<String>, Integer> level : condensed) {
+            for (Map.Entry<Set<String>, Integer> entry : level.entrySet()) {
+                itemsets.add(entry.getKey());
+                supports.add(entry.getValue());
+                for (String item : entry.getKey()) {
+                    labelCounts.merge(item, 1, Integer::sum);
+                }
+            }
+        }
+        ItemDictionary dictionary = new ItemDictionary(labelCounts);
+        List<int[]> encoded = new ArrayList<>(itemsets.size());
+        for (Set<String> itemset : itemsets) {
+            encoded.add(dictionary.encode(itemset));
+        }
+        return new Expansion(dictionary, encoded, supports);
+    }
+
+    // Depth-first walk of the set-enumeration tree: a node is an itemset X (ascending ids) together with the
+    // condensed itemsets containing it, and its children extend X with a larger id found in one of them.
+    private static class Expansion implements Iterator<Map.Entry<Set<String>, Integer>> {
+        private final ItemDictionary dictionary;
+        private final List<int[]> condensed;
+        private final List<Integer> supports;
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private Map.Entry<Set<String>, Integer> next;
+
+        private Expansion(ItemDictionary dictionary, List<int[]> condensed, List<Integer> supports) {
+            this.dictionary = dictionary;
+            this.condensed = condensed;
+            this.supports = supports;
+            int[] all = new int[condensed.size()];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            stack.push(new Node(new int[0], all));
+        }
+
+        private record Node(int[] itemset, int[] containing) {
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !stack.isEmpty()) {
+                Node node = stack.pop();
+                int last = node.itemset.length == 0 ? -1 : node.itemset[node.itemset.length - 1];
+
+                // Children in descending id order, so that they are popped in ascending order
+                TreeMap<Integer, List<Integer>> children = new TreeMap<>(Comparator.reverseOrder());
+                for (int index : node.containing) {
+                    for (int item : condensed.get(index)) {
+                        if (item > last) {
+                            children.computeIfAbsent(item, k -> new ArrayList<>()).add(index);
+                        }
+                    }
+                }
+                for (Map.Entry<Integer, List<Integer>> child : children.entrySet()) {
+                    int[] itemset = Arrays.copyOf(node.itemset, node.itemset.length + 1);
+                    itemset[node.itemset.length] = child.getKey();
+                    stack.push(new Node(itemset, child.getValue().stream().mapToInt(Integer::intValue).toArray()));
+                }
+
+                if (node.itemset.length > 0) {
+                    int support = 0;
+                    for (int index : node.containing) {
+                        support = Math.max(support, supports.get(index));
+                    }
+                    next = Map.entry(dictionary.decode(node.itemset), support);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Set<String>, Integer> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Set<String>, Integer> result = next;
+            next = null;
+            return result;
+        }
+    }
+}
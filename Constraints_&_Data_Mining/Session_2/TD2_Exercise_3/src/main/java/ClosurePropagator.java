@@ -0,0 +1,82 @@
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.util.ESat;
+
+// The itemset x of the items set to 1 is closed: every item in all the transactions of cover(x) is in x.
+// With the same bitset tid-lists as CoverSizePropagator:
+// - an item at 0 whose tids contain cover(x) fails the node;
+// - a free item whose tids contain cover(x) is set to 1, as any solution below must hold it;
+// - a free item i is set to 0 when cover(x) & tids[i] is inside the tids of an item at 0: adding i
+//   would force that item too.
+public class ClosurePropagator extends Propagator<BoolVar> {
+    private final BoolVar[] items;
+    private final long[][] tids;
+    private final long[] all;
+    private final long[] cover;
+    private final long[] extended;
+
+    public ClosurePropagator(BoolVar[] items, long[][] tids, int transactions) {
+        super(items, PropagatorPriority.QUADRATIC, false);
+        this.items = items;
+        this.tids = tids;
+        this.all = CoverSizePropagator.allTransactions(transactions);
+        this.cover = new long[all.length];
+        this.extended = new long[all.length];
+    }
+
+    // Whether every transaction of a is in b
+    static boolean isSubset(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & ~b[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        CoverSizePropagator.cover(items, tids, all, true, cover);
+        for (int j = 0; j < items.length; j++) {
+            if (items[j].isInstantiatedTo(0) && isSubset(cover, tids[j])) {
+                fails();
+            }
+        }
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].isInstantiated()) {
+                continue;
+            }
+            if (isSubset(cover, tids[i])) {
+                items[i].setToTrue(this);
+                continue;
+            }
+            for (int w = 0; w < cover.length; w++) {
+                extended[w] = cover[w] & tids[i][w];
+            }
+            for (int j = 0; j < items.length; j++) {
+                if (items[j].isInstantiatedTo(0) && isSubset(extended, tids[j])) {
+                    items[i].setToFalse(this);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public ESat isEntailed() {
+        for (BoolVar item : items) {
+            if (!item.isInstantiated()) {
+                return ESat.UNDEFINED;
+            }
+        }
+        CoverSizePropagator.cover(items, tids, all, true, cover);
+        for (int j = 0; j < items.length; j++) {
+            if (items[j].isInstantiatedTo(0) && isSubset(cover, tids[j])) {
+                return ESat.FALSE;
+            }
+        }
+        return ESat.TRUE;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.Arrays;
+
+// Only counts the frequent itemsets, per size
+public class CountingSink implements ItemsetSink {
+    private long[] counts = new long[8];
+    private long total;
+    private int maxSize;
+
+    @Override
+    public void onItemset(int[] items, int support) {
+        if (items.length >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(counts.length * 2, items.length + 1));
+        }
+        counts[items.length]++;
+        total++;
+        maxSize = Math.max(maxSize, items.length);
+    }
+
+    // Number of frequent itemsets
+    public long getCount() {
+        return total;
+    }
+
+    // Number of frequent itemsets of the given size
+    public long getCount(int size) {
+        return size < counts.length ? counts[size] : 0;
+    }
+
+    // Size of the largest frequent itemset, 0 if there is none
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(total + " frequent itemsets");
+        for (int size = 1; size <= maxSize; size++) {
+            sb.append(size == 1 ? " (" : ", ").append("size ").append(size).append(": ").append(counts[size]);
+        }
+        return maxSize > 0 ? sb.append(')').toString() : sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import java.util.Arrays;
+
+// frequency = |cover(x)|, where x is the itemset of the items set to 1 and cover(x) the transactions
+// containing all of them (CoverSize). Tid-lists are bitsets, so a cover is a few word-wise ANDs:
+// - frequency is at most |cover(items at 1)| and at least |cover(items not at 0)|;
+// - a free item whose tids would leave the cover below frequency.lb is set to 0.
+// Nothing is stored between calls, so there is no state to restore on backtrack.
+public class CoverSizePropagator extends Propagator<IntVar> {
+    private final BoolVar[] items;
+    private final IntVar frequency;
+    private final long[][] tids; // tids[i] is the bitset of the transactions containing items[i]
+    private final long[] all; // Every transaction, the cover of the empty itemset
+    private final long[] cover;
+    private final long[] maxCover;
+
+    public CoverSizePropagator(BoolVar[] items, IntVar frequency, long[][] tids, int transactions) {
+        super(ArrayUtils.append(items, new IntVar[]{frequency}), PropagatorPriority.QUADRATIC, false);
+        this.items = items;
+        this.frequency = frequency;
+        this.tids = tids;
+        this.all = allTransactions(transactions);
+        this.cover = new long[all.length];
+        this.maxCover = new long[all.length];
+    }
+
+    // Bitset of the transactions 0 .. transactions - 1
+    static long[] allTransactions(int transactions) {
+        long[] bitset = new long[(transactions + 63) >>> 6];
+        Arrays.fill(bitset, -1L);
+        if ((transactions & 63) != 0) {
+            bitset[bitset.length - 1] = (1L << transactions) - 1;
+        }
+        return bitset;
+    }
+
+    // cover = the transactions containing every item set to value (toOne) or not set to 0 (!toOne)
+    static void cover(BoolVar[] items, long[][] tids, long[] all, boolean toOne, long[] cover) {
+        System.arraycopy(all, 0, cover, 0, cover.length);
+        for (int i = 0; i < items.length; i++) {
+            if (toOne ? items[i].isInstantiatedTo(1) : !items[i].isInstantiatedTo(0)) {
+                for (int w = 0; w < cover.length; w++) {
+                    cover[w] &= tids[i][w];
+                }
+            }
+        }
+    }
+
+    static int count(long[] bitset) {
+        int count = 0;
+        for (long word : bitset) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static int intersectionCount(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < a.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        cover(items, tids, all, true, cover);
+        frequency.updateUpperBound(count(cover), this);
+        // The propagator is not called again for its own changes: items set to 0 raise the lower bound
+        boolean changed = true;
+        while (changed) {
+            // The itemset can still grow to every item not at 0
+            cover(items, tids, all, false, maxCover);
+            frequency.updateLowerBound(count(maxCover), this);
+            changed = false;
+            for (int i = 0; i < items.length; i++) {
+                if (!items[i].isInstantiated() && intersectionCount(cover, tids[i]) < frequency.getLB()) {
+                    items[i].setToFalse(this);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    @Override
+    public ESat isEntailed() {
+        for (BoolVar item : items) {
+            if (!item.isInstantiated()) {
+                return ESat.UNDEFINED;
+            }
+        }
+        cover(items, tids, all, true, cover);
+        int size = count(cover);
+        if (!frequency.contains(size)) {
+            return ESat.FALSE;
+        }
+        return frequency.isInstantiated() ? ESat.TRUE : ESat.UNDEFINED;
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.*;
+
+// Eclat with diffsets (dEclat). On dense datasets the tid-lists stay almost as long as their parent's and
+// intersections barely shrink them, so an itemset PXY is represented by the tids of PX that PY lacks
+// instead: d(PXY) = t(PX) - t(PY), and sup(PXY) = sup(PX) - |d(PXY)|. Below a class of diffsets the
+// same holds between siblings: d(PXY) = d(PY) - d(PX).
+// The search starts with tid-lists and a class switches to diffsets when its items cover more than
+// diffsetDensity of the prefix's transactions on average, i.e. when the differences are expected to be
+// shorter than the intersections. Once a class uses diffsets all the classes below it do too.
+public class DEclat {
+    private double minSupport; // Minimum support threshold
+    private double diffsetDensity = 0.5; // Average density of a class above which it uses diffsets
+    private Database database;
+    private long diffsetClasses; // Classes mined with diffsets during the last run
+    private long tidsetClasses; // Classes mined with tid-lists during the last run
+
+    public DEclat(Database database, double minSupport) {
+        this.database = database;
+        this.minSupport = minSupport;
+    }
+
+    // 0 mines with diffsets only, 1 (or more) with tid-lists only, like Eclat
+    public void setDiffsetDensity(double diffsetDensity) {
+        this.diffsetDensity = diffsetDensity;
+    }
+
+    // Depth-first search over tid-lists and diffsets; results are indexed by level like Apriori.run()
+    public List<Map<Set<String>, Integer>> run() {
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
+
+    // Push every frequent itemset to sink as soon as the search reaches it
+    public void run(ItemsetSink sink) {
+        sink.open(database.getDictionary());
+        try {
+            int minCount = minCount();
+            diffsetClasses = 0;
+            tidsetClasses = 0;
+
+            // Step 1: Build the vertical layout and keep the frequent items, least frequent first like Eclat
+            int[][] tidLists = database.buildTidLists();
+            int frequentItems = 0;
+            while (frequentItems < tidLists.length && tidLists[frequentItems].length >= minCount) {
+                frequentItems++;
+            }
+            int[] items = new int[frequentItems];
+            int[][] itemTidLists = new int[frequentItems][];
+            int[] supports = new int[frequentItems];
+            for (int i = 0; i < frequentItems; i++) {
+                items[i] = frequentItems - 1 - i;
+                itemTidLists[i] = tidLists[items[i]];
+                supports[i] = itemTidLists[i].length;
+            }
+
+            // Step 2: Extend every prefix depth-first; the empty prefix is in every transaction
+            mine(new int[0], database.size(), items, itemTidLists, supports, false, minCount, sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    // Every items[i] extends prefix into a frequent itemset of support supports[i]. sets[i] is its tid-list,
+    // or its diffset against prefix when diffsets is set.
+    private void mine(int[] prefix, int prefixSupport, int[] items, int[][] sets, int[] supports,
+                      boolean diffsets, int minCount, ItemsetSink sink) {
+        for (int i = 0; i < items.length; i++) {
+            int[] itemset = Arrays.copyOf(prefix, prefix.length + 1);
+            itemset[prefix.length] = items[i];
+            sink.onItemset(itemset, supports[i]);
+            if (i == items.length - 1) {
+                break;
+            }
+
+            // Dense class: the later siblings share most of their tids with items[i]
+            boolean nextDiffsets = diffsets || density(supports, i + 1, prefixSupport) > diffsetDensity;
+            if (nextDiffsets) {
+                diffsetClasses++;
+            } else {
+                tidsetClasses++;
+            }
+
+            // Equivalence class of itemset: its frequent extensions with the later items
+            int maxDiffset = supports[i] - minCount;
+            int[] nextItems = new int[items.length - i - 1];
+            int[][] nextSets = new int[items.length - i - 1][];
+            int[] nextSupports = new int[items.length - i - 1];
+            int size = 0;
+            for (int j = i + 1; j < items.length; j++) {
+                int[] set;
+                int support;
+                if (!nextDiffsets) {
+                    set = Eclat.intersect(sets[i], sets[j], minCount);
+                    support = set == null ? 0 : set.length;
+                } else {
+                    // From tid-lists the diffset is t(PX) - t(PY), between diffsets it is d(PY) - d(PX)
+                    set = diffsets ? difference(sets[j], sets[i], maxDiffset) : difference(sets[i], sets[j], maxDiffset);
+                    support = set == null ? 0 : supports[i] - set.length;
+                }
+                if (set != null) {
+                    nextItems[size] = items[j];
+                    nextSets[size] = set;
+                    nextSupports[size++] = support;
+                }
+            }
+            if (size > 0) {
+                mine(itemset, supports[i], Arrays.copyOf(nextItems, size), Arrays.copyOf(nextSets, size),
+                        Arrays.copyOf(nextSupports, size), nextDiffsets, minCount, sink);
+            }
+        }
+    }
+
+    // Average fraction of the prefix's transactions covered by supports[from..]
+    private static double density(int[] supports, int from, int prefixSupport) {
+        long total = 0;
+        for (int j = from; j < supports.length; j++) {
+            total += supports[j];
+        }
+        return (double) total / ((long) (supports.length - from) * prefixSupport);
+    }
+
+    // Tids of the sorted list a missing from the sorted list b, or null as soon as there are more than maxSize
+    public static int[] difference(int[] a, int[] b, int maxSize) {
+        if (maxSize < 0) {
+            return null;
+        }
+        int[] result = new int[Math.min(a.length, maxSize)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length) {
+            if (j < b.length && a[i] > b[j]) {
+                j++;
+            } else if (j < b.length && a[i] == b[j]) {
+                i++;
+                j++;
+            } else {
+                if (n == maxSize) {
+                    return null;
+                }
+                result[n++] = a[i++];
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    public long getDiffsetClasses() {
+        return diffsetClasses;
+    }
+
+    public long getTidsetClasses() {
+        return tidsetClasses;
+    }
+
+    // Same threshold as BottomUp and Eclat
+    private int minCount() {
+        return Math.max(1, (int) Math.ceil(minSupport * database.size()));
+    }
+}
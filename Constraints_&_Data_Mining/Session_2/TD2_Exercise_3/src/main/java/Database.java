@@ -1,17 +1,316 @@
-import java.util.List;
+import java.util.*;
 
+// Transactions are stored in compressed sparse row (CSR) form over dense item ids:
+// transaction t holds the sorted ids items[offsets[t] .. offsets[t + 1]).
+// Dense databases additionally expose every transaction as a bitmask over the item ids.
+// A projection (see project) may merge identical transactions into one record with a weight, the number
+// of transactions it stands for; the support counters add weights, the other miners expect weight 1.
+// Weighted datasets ("item:qty" tokens) also keep the quantity of every item occurrence next to items.
 public class Database {
+    // Average fraction of the item alphabet per transaction from which the bitset view is used
+    public static final double DENSE_THRESHOLD = 0.15;
+
     private List<Transaction> transactions;
+    private final ItemDictionary dictionary;
+    private final int[] items;
+    private final int[] offsets;
+    private final int[] weights; // Transactions per record, or null when every record is one transaction
+    private int[] quantities; // Quantity of the occurrence items[p] in quantities[p], or null when all are 1
+    private long[] bitsets;
 
     public Database(List<Transaction> transactions) {
         this.transactions = transactions;
+
+        Map<String, Integer> itemCounts = new HashMap<>();
+        int totalItems = 0;
+        for (Transaction transaction : transactions) {
+            for (String item : transaction.getItems()) {
+                itemCounts.merge(item, 1, Integer::sum);
+            }
+            totalItems += transaction.getItems().size();
+        }
+        this.dictionary = new ItemDictionary(itemCounts);
+        this.weights = null;
+
+        this.items = new int[totalItems];
+        this.offsets = new int[transactions.size() + 1];
+        int pos = 0;
+        for (int t = 0; t < transactions.size(); t++) {
+            int start = pos;
+            for (String item : transactions.get(t).getItems()) {
+                items[pos++] = dictionary.getId(item);
+            }
+            Arrays.sort(items, start, pos);
+            offsets[t + 1] = pos;
+        }
+
+        for (Transaction transaction : transactions) {
+            if (transaction.hasQuantities()) {
+                quantities = new int[totalItems];
+                break;
+            }
+        }
+        if (quantities != null) {
+            for (int t = 0; t < transactions.size(); t++) {
+                for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                    quantities[p] = transactions.get(t).getQuantity(dictionary.getItem(items[p]));
+                }
+            }
+        }
+    }
+
+    public Database(ItemDictionary dictionary, int[] items, int[] offsets) {
+        this(dictionary, items, offsets, null);
     }
 
+    public Database(ItemDictionary dictionary, int[] items, int[] offsets, int[] weights) {
+        this.dictionary = dictionary;
+        this.items = items;
+        this.offsets = offsets;
+        this.weights = weights;
+    }
+
+    // Same transactions with the quantity of every item occurrence (parallel to getItemArray())
+    public Database withQuantities(int[] quantities) {
+        Database database = new Database(dictionary, items, offsets, weights);
+        database.quantities = quantities;
+        return database;
+    }
+
+    // String view of the transactions, decoded on first use when the database was built from ids
     public List<Transaction> getTransactions() {
+        if (transactions == null) {
+            List<Transaction> decoded = new ArrayList<>(size());
+            for (int t = 0; t < size(); t++) {
+                if (quantities == null) {
+                    decoded.add(new Transaction(dictionary.decode(getItems(t))));
+                    continue;
+                }
+                Map<String, Integer> itemQuantities = new HashMap<>();
+                for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                    itemQuantities.put(dictionary.getItem(items[p]), quantities[p]);
+                }
+                decoded.add(new Transaction(itemQuantities));
+            }
+            transactions = decoded;
+        }
         return transactions;
     }
 
+    // Number of records, i.e. of transactions unless the database is a weighted projection
     public int size() {
-        return transactions.size();
+        return offsets.length - 1;
+    }
+
+    // Number of transactions record t stands for
+    public int getWeight(int t) {
+        return weights == null ? 1 : weights[t];
+    }
+
+    public ItemDictionary getDictionary() {
+        return dictionary;
+    }
+
+    // Flat array of item ids of all transactions (see offsets)
+    public int[] getItemArray() {
+        return items;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public boolean hasQuantities() {
+        return quantities != null;
+    }
+
+    // Quantities of the item occurrences (see getItemArray), or null when the dataset has none
+    public int[] getQuantities() {
+        return quantities;
+    }
+
+    // Copy of the sorted item ids of transaction t
+    public int[] getItems(int t) {
+        return Arrays.copyOfRange(items, offsets[t], offsets[t + 1]);
+    }
+
+    // Sub-database of the transactions holding at least minLength items, re-encoded with its own
+    // frequency-ordered item dictionary (labels are unchanged, ids are not). Quantities are not kept.
+    public Database withMinTransactionLength(int minLength) {
+        boolean[] keep = new boolean[size()];
+        for (int t = 0; t < size(); t++) {
+            keep[t] = offsets[t + 1] - offsets[t] >= minLength;
+        }
+        return select(keep, null);
+    }
+
+    // Projection for counting one level of candidates (itemsets of the same size): items missing from every
+    // candidate are removed, records left shorter than a candidate are dropped and identical records are
+    // merged into one weighted record. Ids and dictionary are kept, so the candidates count the same as on
+    // this database, and the projection of a level can be projected again for the next one. Quantities are
+    // not kept.
+    public Database project(List<int[]> candidates) {
+        boolean[] keepItem = new boolean[dictionary.size()];
+        int minLength = Integer.MAX_VALUE;
+        for (int[] candidate : candidates) {
+            for (int item : candidate) {
+                keepItem[item] = true;
+            }
+            minLength = Math.min(minLength, candidate.length);
+        }
+        return project(keepItem, minLength);
+    }
+
+    private Database project(boolean[] keepItem, int minLength) {
+        Map<Itemset, Integer> records = new HashMap<>();
+        List<int[]> projected = new ArrayList<>();
+        List<Integer> projectedWeights = new ArrayList<>();
+        int projectedItems = 0;
+        int[] buffer = new int[dictionary.size()];
+        for (int t = 0; t < size(); t++) {
+            int length = 0;
+            for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                if (keepItem[items[p]]) {
+                    buffer[length++] = items[p];
+                }
+            }
+            if (length < minLength) {
+                continue;
+            }
+            int[] record = Arrays.copyOf(buffer, length);
+            Integer r = records.putIfAbsent(new Itemset(record), projected.size());
+            if (r == null) {
+                projected.add(record);
+                projectedWeights.add(getWeight(t));
+                projectedItems += length;
+            } else {
+                projectedWeights.set(r, projectedWeights.get(r) + getWeight(t));
+            }
+        }
+
+        int[] projectedItemArray = new int[projectedItems];
+        int[] projectedOffsets = new int[projected.size() + 1];
+        int[] weightArray = new int[projected.size()];
+        for (int r = 0, pos = 0; r < projected.size(); r++) {
+            int[] record = projected.get(r);
+            System.arraycopy(record, 0, projectedItemArray, pos, record.length);
+            pos += record.length;
+            projectedOffsets[r + 1] = pos;
+            weightArray[r] = projectedWeights.get(r);
+        }
+        return new Database(dictionary, projectedItemArray, projectedOffsets, weightArray);
+    }
+
+    // Uniform random sample: every transaction is kept with the given probability. Quantities are not kept.
+    public Database sample(double fraction, long seed) {
+        Random random = new Random(seed);
+        boolean[] keep = new boolean[size()];
+        for (int t = 0; t < size(); t++) {
+            keep[t] = random.nextDouble() < fraction;
+        }
+        return select(keep, null);
+    }
+
+    // Sub-database of the transactions with keep set, holding only the items with keepItem set (every item
+    // when keepItem is null), re-encoded with its own frequency-ordered item dictionary. Quantities are not kept.
+    public Database select(boolean[] keep, boolean[] keepItem) {
+        int[] counts = new int[dictionary.size()];
+        int kept = 0;
+        int keptItems = 0;
+        for (int t = 0; t < size(); t++) {
+            if (keep[t]) {
+                for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                    if (keepItem == null || keepItem[items[p]]) {
+                        counts[items[p]]++;
+                        keptItems++;
+                    }
+                }
+                kept++;
+            }
+        }
+
+        Map<String, Integer> itemCounts = new HashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                itemCounts.put(dictionary.getItem(id), counts[id]);
+            }
+        }
+        ItemDictionary projected = new ItemDictionary(itemCounts);
+        int[] newIds = new int[dictionary.size()];
+        for (int id = 0; id < counts.length; id++) {
+            newIds[id] = counts[id] > 0 ? projected.getId(dictionary.getItem(id)) : -1;
+        }
+
+        int[] keptItemArray = new int[keptItems];
+        int[] keptOffsets = new int[kept + 1];
+        int pos = 0;
+        for (int t = 0, n = 0; t < size(); t++) {
+            if (keep[t]) {
+                int start = pos;
+                for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                    if (newIds[items[p]] >= 0) {
+                        keptItemArray[pos++] = newIds[items[p]];
+                    }
+                }
+                Arrays.sort(keptItemArray, start, pos);
+                keptOffsets[++n] = pos;
+            }
+        }
+        return new Database(projected, keptItemArray, keptOffsets);
+    }
+
+    // Vertical layout: the ascending tids of the transactions containing each item id. The lists are sized
+    // from the records themselves, as a projection keeps the dictionary of the full database. A weighted
+    // record stands for several tids, which a tid-list cannot express, so weighted databases are rejected.
+    public int[][] buildTidLists() {
+        if (weights != null) {
+            throw new IllegalStateException("Tid-lists need one record per transaction, not a weighted projection");
+        }
+        int[] lengths = new int[dictionary.size()];
+        for (int p = 0; p < offsets[size()]; p++) {
+            lengths[items[p]]++;
+        }
+        int[][] tidLists = new int[dictionary.size()][];
+        for (int id = 0; id < tidLists.length; id++) {
+            tidLists[id] = new int[lengths[id]];
+        }
+        int[] fill = new int[dictionary.size()];
+        for (int t = 0; t < size(); t++) {
+            for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                tidLists[items[p]][fill[items[p]]++] = t;
+            }
+        }
+        return tidLists;
+    }
+
+    // Average transaction length divided by the number of distinct items
+    public double getDensity() {
+        if (size() == 0 || dictionary.size() == 0) {
+            return 0;
+        }
+        return (double) items.length / size() / dictionary.size();
+    }
+
+    public boolean isDense() {
+        return getDensity() >= DENSE_THRESHOLD;
+    }
+
+    public int getWordsPerTransaction() {
+        return (dictionary.size() + 63) >>> 6;
+    }
+
+    // Transaction t as a bitmask over item ids, in bitsets[t * words .. (t + 1) * words); built on first use
+    public long[] getBitsets() {
+        if (bitsets == null) {
+            int words = getWordsPerTransaction();
+            long[] masks = new long[size() * words];
+            for (int t = 0; t < size(); t++) {
+                for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                    masks[t * words + (items[p] >>> 6)] |= 1L << items[p];
+                }
+            }
+            bitsets = masks;
+        }
+        return bitsets;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Compact binary image of a Database:
+//   header      magic, version, number of transactions, number of items, total item occurrences,
+//               1 if the items carry quantities and 0 if not
+//   dictionary  for every id: label length, UTF-8 label, frequency
+//   data        for every transaction: length, then its sorted ids as gaps from the previous id,
+//               each followed by its quantity in a weighted dataset
+// Everything after the header is written as unsigned LEB128 varints.
+public class DatabaseCache {
+    private static final int MAGIC = 0x46494D43; // "FIMC"
+    private static final int VERSION = 2;
+
+    public static void write(Database database, Path path) throws IOException {
+        ItemDictionary dictionary = database.getDictionary();
+        int[] items = database.getItemArray();
+        int[] offsets = database.getOffsets();
+        int[] quantities = database.getQuantities();
+
+        // Write to a sibling file first so a reader never sees a half-written cache
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(database.size());
+            out.writeInt(dictionary.size());
+            out.writeInt(offsets[database.size()]);
+            out.writeInt(quantities != null ? 1 : 0);
+
+            for (int id = 0; id < dictionary.size(); id++) {
+                byte[] label = dictionary.getItem(id).getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, label.length);
+                out.write(label);
+                writeVarint(out, dictionary.getFrequency(id));
+            }
+
+            for (int t = 0; t < database.size(); t++) {
+                writeVarint(out, offsets[t + 1] - offsets[t]);
+                int previous = 0;
+                for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                    writeVarint(out, items[p] - previous);
+                    previous = items[p];
+                    if (quantities != null) {
+                        writeVarint(out, quantities[p]);
+                    }
+                }
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Memory-map a cache file back into a Database, or return null if it is not a cache of this version or
+    // is truncated or corrupt, so that the caller re-parses the text file
+    public static Database read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 24 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int transactions = buffer.getInt();
+            int dictionarySize = buffer.getInt();
+            int totalItems = buffer.getInt();
+            boolean weighted = buffer.getInt() != 0;
+
+            String[] labels = new String[dictionarySize];
+            int[] frequencies = new int[dictionarySize];
+            for (int id = 0; id < dictionarySize; id++) {
+                byte[] label = new byte[readVarint(buffer)];
+                buffer.get(label);
+                labels[id] = new String(label, StandardCharsets.UTF_8);
+                frequencies[id] = readVarint(buffer);
+            }
+
+            int[] items = new int[totalItems];
+            int[] quantities = weighted ? new int[totalItems] : null;
+            int[] offsets = new int[transactions + 1];
+            int pos = 0;
+            for (int t = 0; t < transactions; t++) {
+                int length = readVarint(buffer);
+                int previous = 0;
+                for (int i = 0; i < length; i++) {
+                    previous += readVarint(buffer);
+                    if (weighted) {
+                        quantities[pos] = readVarint(buffer);
+                    }
+                    items[pos++] = previous;
+                }
+                offsets[t + 1] = pos;
+            }
+            Database database = new Database(new ItemDictionary(labels, frequencies), items, offsets);
+            return weighted ? database.withQuantities(quantities) : database;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.*;
+
+public class Eclat {
+    private double minSupport; // Minimum support threshold
+    private Database database;
+
+    public Eclat(Database database, double minSupport) {
+        this.database = database;
+        this.minSupport = minSupport;
+    }
+
+    // Depth-first search over tid-lists; results are indexed by level like Apriori.run()
+    public List<Map<Set<String>, Integer>> run() {
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
+
+    // Push every frequent itemset to sink as soon as the search reaches it
+    public void run(ItemsetSink sink) {
+        sink.open(database.getDictionary());
+        try {
+            int minCount = minCount();
+
+            // Step 1: Build the vertical layout and keep the frequent items,
+            // least frequent first so that the tid-lists shrink as fast as possible
+            int[][] tidLists = database.buildTidLists();
+            int frequentItems = 0;
+            while (frequentItems < tidLists.length && tidLists[frequentItems].length >= minCount) {
+                frequentItems++;
+            }
+            int[] items = new int[frequentItems];
+            int[][] itemTidLists = new int[frequentItems][];
+            for (int i = 0; i < frequentItems; i++) {
+                items[i] = frequentItems - 1 - i;
+                itemTidLists[i] = tidLists[items[i]];
+            }
+
+            // Step 2: Extend every prefix depth-first by intersecting tid-lists
+            mine(new int[0], items, itemTidLists, minCount, sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    // Every items[i] extends prefix into a frequent itemset whose tids are tidLists[i]
+    private void mine(int[] prefix, int[] items, int[][] tidLists, int minCount, ItemsetSink sink) {
+        for (int i = 0; i < items.length; i++) {
+            int[] itemset = Arrays.copyOf(prefix, prefix.length + 1);
+            itemset[prefix.length] = items[i];
+            sink.onItemset(itemset, tidLists[i].length);
+
+            // Equivalence class of itemset: its frequent extensions with the later items
+            int[] nextItems = new int[items.length - i - 1];
+            int[][] nextTidLists = new int[items.length - i - 1][];
+            int size = 0;
+            for (int j = i + 1; j < items.length; j++) {
+                int[] tids = intersect(tidLists[i], tidLists[j], minCount);
+                if (tids != null) {
+                    nextItems[size] = items[j];
+                    nextTidLists[size++] = tids;
+                }
+            }
+            if (size > 0) {
+                mine(itemset, Arrays.copyOf(nextItems, size), Arrays.copyOf(nextTidLists, size), minCount, sink);
+            }
+        }
+    }
+
+    // Intersection of two sorted tid-lists, or null as soon as it cannot reach minCount
+    public static int[] intersect(int[] a, int[] b, int minCount) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            // Not enough tids left in either list to become frequent
+            if (n + Math.min(a.length - i, b.length - j) < minCount) {
+                return null;
+            }
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n >= minCount ? Arrays.copyOf(result, n) : null;
+    }
+
+    // Same threshold as BottomUp; an itemset needs at least one supporting transaction
+    private int minCount() {
+        return Math.max(1, (int) Math.ceil(minSupport * database.size()));
+    }
+}
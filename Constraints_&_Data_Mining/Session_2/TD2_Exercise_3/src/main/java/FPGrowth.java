@@ -0,0 +1,211 @@
+import java.util.*;
+
+public class FPGrowth {
+    private double minSupport; // Minimum support threshold
+    private Database database;
+
+    public FPGrowth(Database database, double minSupport) {
+        this.database = database;
+        this.minSupport = minSupport;
+    }
+
+    // Build the FP-tree and mine it recursively; results are indexed by level like Apriori.run()
+    public List<Map<Set<String>, Integer>> run() {
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
+
+    // Push every frequent itemset to sink as soon as it is found
+    public void run(ItemsetSink sink) {
+        int minCount = minCount();
+
+        // Pass 1: item supports. Ids are assigned by descending frequency,
+        // so the frequent items are exactly the ids below frequentItems.
+        ItemDictionary dictionary = database.getDictionary();
+        sink.open(dictionary);
+        try {
+            int frequentItems = 0;
+            while (frequentItems < dictionary.size() && dictionary.getFrequency(frequentItems) >= minCount) {
+                frequentItems++;
+            }
+
+            // Pass 2: insert every transaction restricted to its frequent items. Transactions are sorted
+            // by id, i.e. by descending frequency, which is already the FP-tree insertion order.
+            FPTree tree = new FPTree(frequentItems);
+            int[] items = database.getItemArray();
+            int[] offsets = database.getOffsets();
+            for (int t = 0; t < database.size(); t++) {
+                int end = offsets[t];
+                while (end < offsets[t + 1] && items[end] < frequentItems) {
+                    end++;
+                }
+                tree.insert(items, offsets[t], end, 1);
+            }
+
+            mine(tree, new int[0], minCount, sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    // Emit suffix extended by every frequent item of the tree, then recurse on its conditional tree
+    private void mine(FPTree tree, int[] suffix, int minCount, ItemsetSink sink) {
+        if (tree.isSinglePath()) {
+            minePath(tree, suffix, minCount, sink);
+            return;
+        }
+
+        for (int item = tree.itemCount - 1; item >= 0; item--) {
+            if (tree.headerCount[item] < minCount) {
+                continue;
+            }
+            int[] itemset = Arrays.copyOf(suffix, suffix.length + 1);
+            itemset[suffix.length] = item;
+            sink.onItemset(itemset, tree.headerCount[item]);
+
+            // Supports inside the conditional pattern base of item (only smaller ids can be ancestors)
+            int[] conditionalCounts = new int[item];
+            for (int node = tree.headerHead[item]; node != -1; node = tree.link[node]) {
+                for (int p = tree.parent[node]; p != 0; p = tree.parent[p]) {
+                    conditionalCounts[tree.item[p]] += tree.count[node];
+                }
+            }
+            int conditionalItems = item;
+            while (conditionalItems > 0 && conditionalCounts[conditionalItems - 1] < minCount) {
+                conditionalItems--;
+            }
+            if (conditionalItems == 0) {
+                continue;
+            }
+
+            // Conditional FP-tree: every prefix path, restricted to the items frequent in the base
+            FPTree conditional = new FPTree(conditionalItems);
+            int[] path = new int[item];
+            for (int node = tree.headerHead[item]; node != -1; node = tree.link[node]) {
+                int length = 0;
+                for (int p = tree.parent[node]; p != 0; p = tree.parent[p]) {
+                    if (conditionalCounts[tree.item[p]] >= minCount) {
+                        path[length++] = tree.item[p];
+                    }
+                }
+                reverse(path, length);
+                conditional.insert(path, 0, length, tree.count[node]);
+            }
+            mine(conditional, itemset, minCount, sink);
+        }
+    }
+
+    // A single-path tree yields every combination of its nodes; the deepest node chosen gives the support
+    private void minePath(FPTree tree, int[] suffix, int minCount, ItemsetSink sink) {
+        int[] pathItems = new int[tree.size - 1];
+        int[] pathCounts = new int[tree.size - 1];
+        int length = 0;
+        for (int node = tree.firstChild[0]; node != -1 && tree.count[node] >= minCount; node = tree.firstChild[node]) {
+            pathItems[length] = tree.item[node];
+            pathCounts[length++] = tree.count[node];
+        }
+
+        int[] chosen = new int[length];
+        for (int deepest = 0; deepest < length; deepest++) {
+            // Subsets whose deepest node is `deepest`: any combination of the nodes above it
+            for (long mask = 0; mask < (1L << deepest); mask++) {
+                int size = 0;
+                for (int n = 0; n < deepest; n++) {
+                    if ((mask & (1L << n)) != 0) {
+                        chosen[size++] = pathItems[n];
+                    }
+                }
+                chosen[size++] = pathItems[deepest];
+                int[] itemset = Arrays.copyOf(suffix, suffix.length + size);
+                System.arraycopy(chosen, 0, itemset, suffix.length, size);
+                sink.onItemset(itemset, pathCounts[deepest]);
+            }
+        }
+    }
+
+    private static void reverse(int[] array, int length) {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    // Same threshold as BottomUp; an itemset needs at least one supporting transaction
+    private int minCount() {
+        return Math.max(1, (int) Math.ceil(minSupport * database.size()));
+    }
+
+    // Prefix tree stored in parallel int arrays; node 0 is the root. Items are ids below itemCount,
+    // and the header table links all nodes of an item through link[].
+    private static class FPTree {
+        private final int itemCount;
+        private final int[] headerHead;
+        private final int[] headerCount;
+        private int[] item = new int[64];
+        private int[] count = new int[64];
+        private int[] parent = new int[64];
+        private int[] firstChild = new int[64];
+        private int[] nextSibling = new int[64];
+        private int[] link = new int[64];
+        private int size = 1;
+
+        private FPTree(int itemCount) {
+            this.itemCount = itemCount;
+            this.headerHead = new int[itemCount];
+            this.headerCount = new int[itemCount];
+            Arrays.fill(headerHead, -1);
+            firstChild[0] = -1;
+            nextSibling[0] = -1;
+        }
+
+        // Insert the ascending ids path[from, to) with the given count
+        private void insert(int[] path, int from, int to, int pathCount) {
+            int node = 0;
+            for (int i = from; i < to; i++) {
+                int child = firstChild[node];
+                while (child != -1 && item[child] != path[i]) {
+                    child = nextSibling[child];
+                }
+                if (child == -1) {
+                    child = newNode(path[i], node);
+                }
+                count[child] += pathCount;
+                headerCount[path[i]] += pathCount;
+                node = child;
+            }
+        }
+
+        private int newNode(int nodeItem, int parentNode) {
+            if (size == item.length) {
+                int capacity = size * 2;
+                item = Arrays.copyOf(item, capacity);
+                count = Arrays.copyOf(count, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                link = Arrays.copyOf(link, capacity);
+            }
+            int node = size++;
+            item[node] = nodeItem;
+            count[node] = 0;
+            parent[node] = parentNode;
+            firstChild[node] = -1;
+            nextSibling[node] = firstChild[parentNode];
+            firstChild[parentNode] = node;
+            link[node] = headerHead[nodeItem];
+            headerHead[nodeItem] = node;
+            return node;
+        }
+
+        private boolean isSinglePath() {
+            for (int node = 0; node < size; node++) {
+                if (firstChild[node] != -1 && nextSibling[firstChild[node]] != -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes every frequent itemset as a line "item item ... #SUP: support" (the SPMF output format)
+// through a buffered writer. Write errors are rethrown as UncheckedIOException.
+public class FileSink implements ItemsetSink {
+    private final Path path;
+    private BufferedWriter writer;
+    private ItemDictionary dictionary;
+    private final StringBuilder line = new StringBuilder();
+
+    public FileSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void open(ItemDictionary dictionary) {
+        this.dictionary = dictionary;
+        try {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onItemset(int[] items, int support) {
+        line.setLength(0);
+        for (int item : items) {
+            line.append(dictionary.getItem(item)).append(' ');
+        }
+        line.append("#SUP: ").append(support).append('\n');
+        try {
+            writer.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+import java.util.*;
+
+// High-utility itemsets (HUI-Miner) of a weighted database. The utility of an item in a transaction is
+// its quantity times its unit price, and the utility of an itemset is the sum, over the transactions
+// containing it, of the utilities of its items; utility is not anti-monotone, so Apriori's pruning does
+// not apply. Instead:
+// - the transaction-weighted utility TWU(X), the total utility of the transactions containing X, bounds
+//   the utility of X and of all its supersets: items with TWU below minUtility are dropped up front;
+// - every itemset keeps a utility list, (tid, utility of X in t, utility of the items after X in t)
+//   in ascending TWU order, built by joining its parents' lists like Eclat's tid-lists. The sum of the
+//   last two columns bounds the utility of every extension of X, which prunes the search;
+// - the TWU of every pair of items (FHM's co-occurrence structure) skips the joins of PX and PY whose
+//   itemset PXY cannot reach minUtility, before their lists are built.
+public class HUIMiner {
+    private static final long MAX_PAIRS = 1L << 24; // Largest pair TWU matrix worth allocating
+
+    private long minUtility; // Minimum utility of a reported itemset
+    private Database database;
+    private Map<String, Integer> unitPrices = Map.of(); // External utility of the items, 1 when missing
+    private long utilityLists; // Utility lists built by the last run
+    private int[] itemIds; // Promising items by ascending TWU: the search works on their ranks
+    private long[] pairTwu; // TWU of the pairs of ranks a < b at pairIndex(a, b), or null
+
+    public HUIMiner(Database database, long minUtility) {
+        this.database = database;
+        this.minUtility = minUtility;
+    }
+
+    // The TWU and remaining-utility bounds only hold for non-negative utilities, so prices cannot be negative
+    public void setUnitPrices(Map<String, Integer> unitPrices) {
+        for (Map.Entry<String, Integer> entry : unitPrices.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Unit prices must be non-negative, got "
+                        + entry.getKey() + " = " + entry.getValue());
+            }
+        }
+        this.unitPrices = unitPrices;
+    }
+
+    public long getUtilityLists() {
+        return utilityLists;
+    }
+
+    // High-utility itemsets with their utility, indexed by level like Apriori.run()
+    public List<Map<Set<String>, Long>> run() {
+        ItemDictionary dictionary = database.getDictionary();
+        int[] items = database.getItemArray();
+        int[] offsets = database.getOffsets();
+        int[] quantities = database.getQuantities();
+        utilityLists = 0;
+
+        long[] prices = new long[dictionary.size()];
+        for (int id = 0; id < prices.length; id++) {
+            prices[id] = unitPrices.getOrDefault(dictionary.getItem(id), 1);
+        }
+
+        // Scan 1: transaction utilities and the TWU of every item
+        long[] twu = new long[dictionary.size()];
+        for (int t = 0; t < database.size(); t++) {
+            long transactionUtility = 0;
+            for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                transactionUtility += utility(items, quantities, prices, p);
+            }
+            for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                twu[items[p]] += transactionUtility;
+            }
+        }
+
+        // Promising items by ascending TWU: rank[id] is their position, or -1
+        List<Integer> promising = new ArrayList<>();
+        for (int id = 0; id < twu.length; id++) {
+            if (twu[id] >= minUtility) {
+                promising.add(id);
+            }
+        }
+        promising.sort(Comparator.comparingLong((Integer id) -> twu[id]).thenComparingInt(id -> id));
+        int[] rank = new int[dictionary.size()];
+        Arrays.fill(rank, -1);
+        itemIds = new int[promising.size()];
+        UtilityList[] lists = new UtilityList[promising.size()];
+        for (int r = 0; r < itemIds.length; r++) {
+            itemIds[r] = promising.get(r);
+            rank[itemIds[r]] = r;
+            lists[r] = new UtilityList(dictionary.getFrequency(itemIds[r]));
+        }
+
+        // Scan 2: the utility list of every promising item, where the remaining utility of an occurrence
+        // only counts the promising items after it, and the TWU of the pairs when the matrix is small enough
+        pairTwu = PairCounter.pairs(itemIds.length) <= MAX_PAIRS ? new long[(int) PairCounter.pairs(itemIds.length)] : null;
+        int[] transactionRanks = new int[itemIds.length];
+        long[] utilities = new long[itemIds.length];
+        for (int t = 0; t < database.size(); t++) {
+            int size = 0;
+            long transactionUtility = 0;
+            for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                int r = rank[items[p]];
+                if (r >= 0) {
+                    transactionRanks[size++] = r;
+                    utilities[r] = utility(items, quantities, prices, p);
+                }
+                transactionUtility += utility(items, quantities, prices, p);
+            }
+            Arrays.sort(transactionRanks, 0, size);
+            long remaining = 0;
+            for (int i = size - 1; i >= 0; i--) {
+                int r = transactionRanks[i];
+                lists[r].add(t, utilities[r], remaining);
+                remaining += utilities[r];
+                for (int j = i + 1; pairTwu != null && j < size; j++) {
+                    pairTwu[pairIndex(r, transactionRanks[j])] += transactionUtility;
+                }
+            }
+        }
+        utilityLists += lists.length;
+
+        List<Map<Set<String>, Long>> result = new ArrayList<>();
+        result.add(new HashMap<>());
+        int[] ranks = new int[itemIds.length];
+        for (int r = 0; r < ranks.length; r++) {
+            ranks[r] = r;
+        }
+        search(new int[0], null, ranks, lists, result);
+        pairTwu = null;
+        return result;
+    }
+
+    // Same layout as PairCounter
+    private int pairIndex(int a, int b) {
+        return (int) ((long) a * (2 * itemIds.length - a - 1) / 2) + b - a - 1;
+    }
+
+    private static long utility(int[] items, int[] quantities, long[] prices, int p) {
+        return (quantities == null ? 1 : quantities[p]) * prices[items[p]];
+    }
+
+    // Every ranks[i] extends prefix (ranks too, whose list is prefixList, null for the empty prefix) into
+    // an itemset whose utility list is lists[i]
+    private void search(int[] prefix, UtilityList prefixList, int[] ranks, UtilityList[] lists,
+                        List<Map<Set<String>, Long>> result) {
+        for (int i = 0; i < ranks.length; i++) {
+            int[] itemset = Arrays.copyOf(prefix, prefix.length + 1);
+            itemset[prefix.length] = ranks[i];
+            UtilityList list = lists[i];
+            if (list.sumUtility >= minUtility) {
+                while (result.size() < itemset.length) {
+                    result.add(new HashMap<>());
+                }
+                int[] ids = new int[itemset.length];
+                for (int k = 0; k < ids.length; k++) {
+                    ids[k] = itemIds[itemset[k]];
+                }
+                result.get(itemset.length - 1).put(database.getDictionary().decode(ids), list.sumUtility);
+            }
+            // No extension can reach minUtility
+            if (list.sumUtility + list.sumRemaining < minUtility) {
+                continue;
+            }
+
+            int[] nextRanks = new int[ranks.length - i - 1];
+            UtilityList[] nextLists = new UtilityList[ranks.length - i - 1];
+            int size = 0;
+            for (int j = i + 1; j < ranks.length; j++) {
+                // TWU of the pair bounds PXY too
+                if (pairTwu != null && pairTwu[pairIndex(ranks[i], ranks[j])] < minUtility) {
+                    continue;
+                }
+                UtilityList joined = join(prefixList, list, lists[j]);
+                if (joined != null) {
+                    nextRanks[size] = ranks[j];
+                    nextLists[size++] = joined;
+                }
+            }
+            if (size > 0) {
+                search(itemset, list, Arrays.copyOf(nextRanks, size), Arrays.copyOf(nextLists, size), result);
+            }
+        }
+    }
+
+    // Utility list of PXY from those of P, PX and PY: the utility of P would be counted twice, so it is
+    // subtracted. Returns null once the tids of PX missing from PY leave the bound below minUtility.
+    private UtilityList join(UtilityList p, UtilityList px, UtilityList py) {
+        UtilityList pxy = new UtilityList(Math.min(px.size, py.size));
+        long bound = px.sumUtility + px.sumRemaining;
+        int y = 0, z = 0;
+        for (int x = 0; x < px.size; x++) {
+            int tid = px.tids[x];
+            while (y < py.size && py.tids[y] < tid) {
+                y++;
+            }
+            if (y == py.size || py.tids[y] != tid) {
+                bound -= px.utilities[x] + px.remaining[x];
+                if (bound < minUtility) {
+                    return null;
+                }
+                continue;
+            }
+            long utility = px.utilities[x] + py.utilities[y];
+            if (p != null) {
+                while (p.tids[z] < tid) {
+                    z++;
+                }
+                utility -= p.utilities[z];
+            }
+            pxy.add(tid, utility, py.remaining[y]);
+        }
+        utilityLists++;
+        return pxy;
+    }
+
+    // Columns of a utility list, by ascending tid
+    private static class UtilityList {
+        private final int[] tids;
+        private final long[] utilities;
+        private final long[] remaining;
+        private int size;
+        private long sumUtility;
+        private long sumRemaining;
+
+        private UtilityList(int capacity) {
+            tids = new int[capacity];
+            utilities = new long[capacity];
+            remaining = new long[capacity];
+        }
+
+        private void add(int tid, long utility, long remainingUtility) {
+            tids[size] = tid;
+            utilities[size] = utility;
+            remaining[size++] = remainingUtility;
+            sumUtility += utility;
+            sumRemaining += remainingUtility;
+        }
+    }
+}
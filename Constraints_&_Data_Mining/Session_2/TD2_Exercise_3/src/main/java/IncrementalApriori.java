@@ -0,0 +1,186 @@
+import java.util.*;
+
+// Incremental maintenance of the Apriori.run() result when transactions are appended (FUP):
+// - an itemset that was frequent keeps its old count, only its count in the increment is needed;
+// - an itemset that was not frequent had an old count below the old threshold, so it can only become
+//   frequent if its count in the increment makes up the difference. Only those candidates are counted
+//   again over the old transactions.
+// The old transactions are kept as the list of databases seen so far and are never merged or re-encoded.
+public class IncrementalApriori {
+    private double minSupport; // Minimum support threshold
+    private final List<Database> segments = new ArrayList<>();
+    private final Map<String, Integer> itemCounts = new HashMap<>();
+    private List<Map<Set<String>, Integer>> frequentItemsets;
+    private int size; // Number of transactions over all segments
+    private int threads = 1; // Threads used for support counting
+    private long rescannedCandidates; // Candidates counted again over the old transactions by the last update
+
+    // frequentItemsets must be the result of new Apriori(database, minSupport).run()
+    public IncrementalApriori(Database database, double minSupport, List<Map<Set<String>, Integer>> frequentItemsets) {
+        this.minSupport = minSupport;
+        this.frequentItemsets = frequentItemsets;
+        addSegment(database);
+    }
+
+    public IncrementalApriori(Database database, double minSupport) {
+        this(database, minSupport, new Apriori(database, minSupport).run());
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    // Frequent itemsets over every transaction seen so far, indexed by level like Apriori.run()
+    public List<Map<Set<String>, Integer>> getFrequentItemsets() {
+        return frequentItemsets;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getRescannedCandidates() {
+        return rescannedCandidates;
+    }
+
+    // Append the transactions and return the frequent itemsets of the whole history,
+    // identical to running Apriori again over all of it
+    public List<Map<Set<String>, Integer>> update(List<Transaction> increment) {
+        Database delta = new Database(increment);
+        int total = size + delta.size();
+        // Same thresholds as Apriori: ceil on level 1, floor on the higher levels
+        int minCount1 = (int) Math.ceil(minSupport * total);
+        int minCount = (int) (minSupport * total);
+        // Highest old count of an itemset missing from the old result
+        int maxOldCount = Math.max(0, (int) Math.ceil(minSupport * size) - 1);
+
+        // Items of the whole history, with their updated supports
+        Map<String, Integer> newItemCounts = new HashMap<>(itemCounts);
+        ItemDictionary deltaDictionary = delta.getDictionary();
+        for (int id = 0; id < deltaDictionary.size(); id++) {
+            newItemCounts.merge(deltaDictionary.getItem(id), deltaDictionary.getFrequency(id), Integer::sum);
+        }
+        ItemDictionary dictionary = new ItemDictionary(newItemCounts);
+
+        List<Map<Set<String>, Integer>> updated = new ArrayList<>();
+        rescannedCandidates = 0;
+
+        // Level 1: item supports are known exactly without any scan
+        List<int[]> currentItemsets = new ArrayList<>();
+        Map<Set<String>, Integer> frequent1Itemsets = new HashMap<>();
+        for (int id = 0; id < dictionary.size() && dictionary.getFrequency(id) >= minCount1; id++) {
+            currentItemsets.add(new int[]{id});
+            frequent1Itemsets.put(dictionary.decode(new int[]{id}), dictionary.getFrequency(id));
+        }
+        updated.add(frequent1Itemsets);
+
+        // Level k: candidates from the updated level k - 1, counted on the increment first
+        for (int k = 2; !currentItemsets.isEmpty(); k++) {
+            List<int[]> candidates = AprioriGen.generate(currentItemsets);
+            int[] deltaCounts = count(delta, dictionary, candidates);
+            Map<Itemset, Integer> oldLevel = encode(k, dictionary);
+
+            int[] counts = new int[candidates.size()];
+            List<int[]> rescan = new ArrayList<>();
+            List<Integer> rescanIndices = new ArrayList<>();
+            for (int c = 0; c < candidates.size(); c++) {
+                Integer oldCount = oldLevel.get(new Itemset(candidates.get(c)));
+                if (oldCount != null) {
+                    counts[c] = oldCount + deltaCounts[c];
+                } else if (deltaCounts[c] + maxOldCount >= minCount) {
+                    rescan.add(candidates.get(c));
+                    rescanIndices.add(c);
+                }
+            }
+
+            // Newly promising candidates: their old count is only known after a scan of the old segments
+            if (!rescan.isEmpty()) {
+                int[] oldCounts = new int[rescan.size()];
+                for (Database segment : segments) {
+                    int[] segmentCounts = count(segment, dictionary, rescan);
+                    for (int r = 0; r < oldCounts.length; r++) {
+                        oldCounts[r] += segmentCounts[r];
+                    }
+                }
+                for (int r = 0; r < oldCounts.length; r++) {
+                    counts[rescanIndices.get(r)] = oldCounts[r] + deltaCounts[rescanIndices.get(r)];
+                }
+                rescannedCandidates += rescan.size();
+            }
+
+            List<int[]> frequent = new ArrayList<>();
+            Map<Set<String>, Integer> frequentLevel = new HashMap<>();
+            for (int c = 0; c < candidates.size(); c++) {
+                if (counts[c] > 0 && counts[c] >= minCount) {
+                    frequent.add(candidates.get(c));
+                    frequentLevel.put(dictionary.decode(candidates.get(c)), counts[c]);
+                }
+            }
+            if (frequent.isEmpty()) {
+                break;
+            }
+            updated.add(frequentLevel);
+            currentItemsets = frequent;
+        }
+
+        addSegment(delta);
+        frequentItemsets = updated;
+        return updated;
+    }
+
+    // Old frequent k-itemsets as ids of dictionary, which knows every item seen so far
+    private Map<Itemset, Integer> encode(int k, ItemDictionary dictionary) {
+        Map<Itemset, Integer> encoded = new HashMap<>();
+        if (k <= frequentItemsets.size()) {
+            for (Map.Entry<Set<String>, Integer> entry : frequentItemsets.get(k - 1).entrySet()) {
+                encoded.put(new Itemset(dictionary.encode(entry.getKey())), entry.getValue());
+            }
+        }
+        return encoded;
+    }
+
+    private void addSegment(Database segment) {
+        segments.add(segment);
+        size += segment.size();
+        ItemDictionary segmentDictionary = segment.getDictionary();
+        for (int id = 0; id < segmentDictionary.size(); id++) {
+            itemCounts.merge(segmentDictionary.getItem(id), segmentDictionary.getFrequency(id), Integer::sum);
+        }
+    }
+
+    // Supports in segment of candidates given as ids of dictionary; a candidate with an item
+    // the segment never saw has support 0 there
+    private int[] count(Database segment, ItemDictionary dictionary, List<int[]> candidates) {
+        ItemDictionary segmentDictionary = segment.getDictionary();
+        int[] idMap = new int[dictionary.size()];
+        for (int id = 0; id < idMap.length; id++) {
+            idMap[id] = segmentDictionary.getId(dictionary.getItem(id));
+        }
+
+        List<int[]> translated = new ArrayList<>(candidates.size());
+        List<Integer> positions = new ArrayList<>(candidates.size());
+        for (int c = 0; c < candidates.size(); c++) {
+            int[] candidate = candidates.get(c);
+            int[] itemset = new int[candidate.length];
+            boolean known = true;
+            for (int i = 0; i < candidate.length && known; i++) {
+                itemset[i] = idMap[candidate[i]];
+                known = itemset[i] >= 0;
+            }
+            if (known) {
+                Arrays.sort(itemset);
+                translated.add(itemset);
+                positions.add(c);
+            }
+        }
+
+        int[] counts = new int[candidates.size()];
+        if (!translated.isEmpty()) {
+            int[] segmentCounts = SupportCounter.forCandidates(segment, translated).count(segment, threads);
+            for (int i = 0; i < segmentCounts.length; i++) {
+                counts[positions.get(i)] = segmentCounts[i];
+            }
+        }
+        return counts;
+    }
+}
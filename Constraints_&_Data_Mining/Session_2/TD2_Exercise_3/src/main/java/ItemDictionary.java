@@ -0,0 +1,77 @@
+import java.util.*;
+
+// Bidirectional mapping between item labels and dense int ids.
+// Ids are assigned by descending frequency (ties broken by label), so id 0 is the most frequent item.
+public class ItemDictionary {
+    private final String[] items;
+    private final int[] frequencies;
+    private final Map<String, Integer> ids;
+
+    public ItemDictionary(Map<String, Integer> itemCounts) {
+        List<String> sorted = new ArrayList<>(itemCounts.keySet());
+        sorted.sort((a, b) -> {
+            int byCount = Integer.compare(itemCounts.get(b), itemCounts.get(a));
+            return byCount != 0 ? byCount : a.compareTo(b);
+        });
+
+        this.items = sorted.toArray(new String[0]);
+        this.frequencies = new int[items.length];
+        this.ids = new HashMap<>(items.length * 2);
+        for (int id = 0; id < items.length; id++) {
+            frequencies[id] = itemCounts.get(items[id]);
+            ids.put(items[id], id);
+        }
+    }
+
+    // Dictionary with an explicit id order: items[id] has the given frequency
+    public ItemDictionary(String[] items, int[] frequencies) {
+        this.items = items;
+        this.frequencies = frequencies;
+        this.ids = new HashMap<>(items.length * 2);
+        for (int id = 0; id < items.length; id++) {
+            ids.put(items[id], id);
+        }
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    // Returns the id of an item, or -1 if the item never occurs in the database
+    public int getId(String item) {
+        return ids.getOrDefault(item, -1);
+    }
+
+    public String getItem(int id) {
+        return items[id];
+    }
+
+    // Number of transactions containing the item
+    public int getFrequency(int id) {
+        return frequencies[id];
+    }
+
+    // Translate a set of labels into a sorted id array, or null if one of the labels is unknown
+    public int[] encode(Collection<String> itemset) {
+        int[] encoded = new int[itemset.size()];
+        int i = 0;
+        for (String item : itemset) {
+            int id = getId(item);
+            if (id < 0) {
+                return null;
+            }
+            encoded[i++] = id;
+        }
+        Arrays.sort(encoded);
+        return encoded;
+    }
+
+    // Translate a sorted id array back into a set of labels
+    public Set<String> decode(int[] itemset) {
+        Set<String> decoded = new HashSet<>(itemset.length * 2);
+        for (int id : itemset) {
+            decoded.add(items[id]);
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,40 @@
+import java.util.Arrays;
+
+// Hashable wrapper around a sorted int[] of item ids, used as a key in hash-based lookups.
+public final class Itemset implements Comparable<Itemset> {
+    private final int[] items;
+    private final int hash;
+
+    public Itemset(int[] items) {
+        this.items = items;
+        this.hash = Arrays.hashCode(items);
+    }
+
+    public int[] getItems() {
+        return items;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Itemset other && hash == other.hash && Arrays.equals(items, other.items);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public int compareTo(Itemset other) {
+        return Arrays.compare(items, other.items);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(items);
+    }
+}
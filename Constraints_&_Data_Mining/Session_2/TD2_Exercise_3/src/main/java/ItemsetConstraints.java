@@ -0,0 +1,296 @@
+import java.util.*;
+
+// Constraints on the itemsets a miner reports, on top of minimum support. They come in two kinds:
+// - anti-monotone, violated by every superset of a violating itemset: excluded items, a maximum length and
+//   upper bounds on the sum of a non-negative item attribute. Candidates violating them are never counted,
+//   and excluded items are never even generated.
+// - monotone, satisfied by every superset of a satisfying itemset: required items, a minimum length, lower
+//   bounds on such a sum and "at least one of" groups. A transaction violating them contains no solution,
+//   so it is dropped before mining (ExAnte); items that become infrequent are dropped in turn, which can
+//   drop more transactions, until nothing changes. Solutions keep their exact support.
+public class ItemsetConstraints {
+    private final Set<String> required = new HashSet<>();
+    private final Set<String> excluded = new HashSet<>();
+    private final List<Set<String>> groups = new ArrayList<>(); // An itemset holds an item of every group
+    private final List<Map<String, Double>> sumValues = new ArrayList<>(); // Attribute of every sum bound
+    private final List<double[]> sumBounds = new ArrayList<>(); // {min, max} of every sum bound
+    private int minLength = 1;
+    private int maxLength = Integer.MAX_VALUE;
+
+    public void addRequired(String... items) {
+        required.addAll(Arrays.asList(items));
+    }
+
+    public void addExcluded(String... items) {
+        excluded.addAll(Arrays.asList(items));
+    }
+
+    // Itemsets must contain at least one of the items
+    public void addOneOf(Set<String> items) {
+        groups.add(new HashSet<>(items));
+    }
+
+    public void setMinLength(int minLength) {
+        this.minLength = minLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    // min <= sum of values.get(item) over the itemset <= max, a missing item counting 0. Values must not be
+    // negative, so that the sum can only grow with the itemset.
+    public void addSumBounds(Map<String, Double> values, double min, double max) {
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Sum bounds need non-negative values, got "
+                        + entry.getKey() + " = " + entry.getValue());
+            }
+        }
+        sumValues.add(values);
+        sumBounds.add(new double[]{min, max});
+    }
+
+    // Whether the itemset satisfies every constraint, to filter a result mined without them
+    public boolean accepts(Set<String> itemset) {
+        if (itemset.size() < minLength || itemset.size() > maxLength || !itemset.containsAll(required)) {
+            return false;
+        }
+        for (String item : itemset) {
+            if (excluded.contains(item)) {
+                return false;
+            }
+        }
+        for (Set<String> group : groups) {
+            if (Collections.disjoint(group, itemset)) {
+                return false;
+            }
+        }
+        for (int b = 0; b < sumValues.size(); b++) {
+            double sum = 0;
+            for (String item : itemset) {
+                sum += sumValues.get(b).getOrDefault(item, 0.0);
+            }
+            if (sum < sumBounds.get(b)[0] || sum > sumBounds.get(b)[1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The constraints over the ids of dictionary
+    public Checker on(ItemDictionary dictionary) {
+        return new Checker(dictionary);
+    }
+
+    // Checks on id arrays; a checker reuses scratch state and is meant for one thread
+    public class Checker {
+        private final boolean[] excludedIds;
+        private final boolean[] requiredIds;
+        private final int[][] itemGroups; // Groups of every id
+        private final double[][] values; // values[b][id] is the attribute of sum bound b
+        private final boolean[] groupHit;
+
+        private Checker(ItemDictionary dictionary) {
+            excludedIds = new boolean[dictionary.size()];
+            requiredIds = new boolean[dictionary.size()];
+            values = new double[sumValues.size()][dictionary.size()];
+            List<List<Integer>> groupLists = new ArrayList<>();
+            for (int id = 0; id < dictionary.size(); id++) {
+                String item = dictionary.getItem(id);
+                excludedIds[id] = excluded.contains(item);
+                requiredIds[id] = required.contains(item);
+                for (int b = 0; b < values.length; b++) {
+                    values[b][id] = sumValues.get(b).getOrDefault(item, 0.0);
+                }
+                List<Integer> itemGroupList = new ArrayList<>();
+                for (int g = 0; g < groups.size(); g++) {
+                    if (groups.get(g).contains(item)) {
+                        itemGroupList.add(g);
+                    }
+                }
+                groupLists.add(itemGroupList);
+            }
+            itemGroups = new int[dictionary.size()][];
+            for (int id = 0; id < itemGroups.length; id++) {
+                itemGroups[id] = groupLists.get(id).stream().mapToInt(Integer::intValue).toArray();
+            }
+            groupHit = new boolean[groups.size()];
+        }
+
+        public boolean isExcluded(int id) {
+            return excludedIds[id];
+        }
+
+        // Excluded items, maximum length and upper sum bounds
+        public boolean satisfiesAntiMonotone(int[] itemset) {
+            if (itemset.length > maxLength) {
+                return false;
+            }
+            for (int id : itemset) {
+                if (excludedIds[id]) {
+                    return false;
+                }
+            }
+            for (int b = 0; b < values.length; b++) {
+                double sum = 0;
+                for (int id : itemset) {
+                    sum += values[b][id];
+                }
+                if (sum > sumBounds.get(b)[1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public boolean satisfiesMonotone(int[] itemset) {
+            return satisfiesMonotone(itemset, 0, itemset.length, null);
+        }
+
+        // Required items, minimum length, lower sum bounds and groups, over the items of items[from, to)
+        // with keepItem set (all of them when keepItem is null)
+        public boolean satisfiesMonotone(int[] items, int from, int to, boolean[] keepItem) {
+            int length = 0;
+            int requiredFound = 0;
+            Arrays.fill(groupHit, false);
+            int groupsHit = 0;
+            double[] sums = new double[values.length];
+            for (int p = from; p < to; p++) {
+                int id = items[p];
+                if (keepItem != null && !keepItem[id]) {
+                    continue;
+                }
+                length++;
+                if (requiredIds[id]) {
+                    requiredFound++;
+                }
+                for (int g : itemGroups[id]) {
+                    if (!groupHit[g]) {
+                        groupHit[g] = true;
+                        groupsHit++;
+                    }
+                }
+                for (int b = 0; b < values.length; b++) {
+                    sums[b] += values[b][id];
+                }
+            }
+            if (length < minLength || requiredFound < required.size() || groupsHit < groups.size()) {
+                return false;
+            }
+            for (int b = 0; b < values.length; b++) {
+                if (sums[b] < sumBounds.get(b)[0]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // ExAnte: the transactions of database that may hold a solution of support at least minCount, with
+    // only the items that may belong to one, re-encoded. Excluded items go first, then transactions
+    // violating the monotone constraints and items left below minCount are dropped in turn.
+    public Database reduce(Database database, int minCount) {
+        Checker checker = on(database.getDictionary());
+        int[] items = database.getItemArray();
+        int[] offsets = database.getOffsets();
+        boolean[] keep = new boolean[database.size()];
+        Arrays.fill(keep, true);
+        boolean[] keepItem = new boolean[database.getDictionary().size()];
+        for (int id = 0; id < keepItem.length; id++) {
+            keepItem[id] = !checker.isExcluded(id);
+        }
+
+        boolean changed = true;
+        while (changed) {
+            int[] counts = new int[keepItem.length];
+            for (int t = 0; t < database.size(); t++) {
+                if (keep[t] && !checker.satisfiesMonotone(items, offsets[t], offsets[t + 1], keepItem)) {
+                    keep[t] = false;
+                }
+                if (keep[t]) {
+                    for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                        counts[items[p]]++;
+                    }
+                }
+            }
+            changed = false;
+            for (int id = 0; id < keepItem.length; id++) {
+                if (keepItem[id] && counts[id] < minCount) {
+                    keepItem[id] = false;
+                    changed = true;
+                }
+            }
+        }
+        return database.select(keep, keepItem);
+    }
+
+    // Level-wise search with the constraints pushed in, shared by Apriori and BottomUp: minCount1 is the
+    // threshold of level 1, minCount (at most minCount1) that of the higher levels. The sink is opened
+    // with the dictionary of the reduced database.
+    public void mine(Database database, int minCount1, int minCount, int threads, ItemsetSink sink) {
+        ItemDictionary fullDictionary = database.getDictionary();
+        Database reduced = reduce(database, Math.max(1, minCount));
+        ItemDictionary dictionary = reduced.getDictionary();
+        Checker checker = on(dictionary);
+        sink.open(dictionary);
+        try {
+            // Level 1: an item must be frequent in the whole database to extend, whatever its reduced support
+            List<int[]> currentItemsets = new ArrayList<>();
+            for (int id = 0; id < dictionary.size(); id++) {
+                int[] itemset = {id};
+                if (fullDictionary.getFrequency(fullDictionary.getId(dictionary.getItem(id))) >= minCount1
+                        && checker.satisfiesAntiMonotone(itemset)) {
+                    currentItemsets.add(itemset);
+                    if (checker.satisfiesMonotone(itemset)) {
+                        sink.onItemset(itemset, dictionary.getFrequency(id));
+                    }
+                }
+            }
+
+            // Higher levels: frequent itemsets satisfying the anti-monotone constraints are downward closed,
+            // so the candidates are joined from them and the violating ones dropped before counting.
+            // Level 2 comes from the pair matrix of every reduced item like in Apriori, when it fits.
+            Database projection = reduced;
+            boolean pairMatrix = PairCounter.pairs(dictionary.size()) <= PairCounter.MAX_PAIRS;
+            while (!currentItemsets.isEmpty()) {
+                List<int[]> candidates = new ArrayList<>();
+                for (int[] candidate : AprioriGen.generate(currentItemsets)) {
+                    if (checker.satisfiesAntiMonotone(candidate)) {
+                        candidates.add(candidate);
+                    }
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                int[] supportCounts;
+                if (pairMatrix && candidates.get(0).length == 2) {
+                    PairCounter pairCounter = new PairCounter(dictionary.size());
+                    // One counter matrix per chunk when counting in parallel
+                    boolean parallel = PairCounter.pairs(dictionary.size()) * threads <= PairCounter.MAX_PAIRS;
+                    int[] pairCounts = pairCounter.count(reduced, parallel ? threads : 1);
+                    supportCounts = new int[candidates.size()];
+                    for (int c = 0; c < supportCounts.length; c++) {
+                        supportCounts[c] = pairCounts[pairCounter.index(candidates.get(c)[0], candidates.get(c)[1])];
+                    }
+                } else {
+                    projection = projection.project(candidates);
+                    supportCounts = SupportCounter.forCandidates(projection, candidates).count(projection, threads);
+                }
+
+                List<int[]> frequent = new ArrayList<>();
+                for (int c = 0; c < supportCounts.length; c++) {
+                    if (supportCounts[c] > 0 && supportCounts[c] >= minCount) {
+                        frequent.add(candidates.get(c));
+                        if (checker.satisfiesMonotone(candidates.get(c))) {
+                            sink.onItemset(candidates.get(c), supportCounts[c]);
+                        }
+                    }
+                }
+                currentItemsets = frequent;
+            }
+        } finally {
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+// Receives the frequent itemsets as soon as a miner finds them, so that a result set never has to be
+// held in memory as a whole. A miner calls open() once, then onItemset() for every frequent itemset,
+// then close().
+public interface ItemsetSink {
+    // Dictionary of the item ids passed to onItemset
+    default void open(ItemDictionary dictionary) {
+    }
+
+    // items holds item ids in no particular order; the array must not be kept after the call
+    void onItemset(int[] items, int support);
+
+    default void close() {
+    }
+}
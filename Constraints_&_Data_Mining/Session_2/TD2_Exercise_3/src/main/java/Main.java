@@ -34,8 +34,8 @@ public class Main {
         for (int i = 0; i < frequentItemsets.size(); i++) {
             System.out.println("Level " + (i + 1) + ": " + frequentItemsets.get(i));
         }
-        //Q2
-        List<Map<Set<String>, Integer>> frequentItemsetsQ2 = apriori.runUsingOrdLex();
+        //Q2 the child operator based on lexicographical order is the prefix join run() already uses
+        List<Map<Set<String>, Integer>> frequentItemsetsQ2 = apriori.run();
         // Display results
         System.out.println("======Q2 Frequent Itemsets:======");
         for (int i = 0; i < frequentItemsetsQ2.size(); i++) {
@@ -47,7 +47,7 @@ public class Main {
          * According to the results, we find that in the case of a large amount of data, the lower the support,
          * the more frequent terms, and the shorter the time efficiency of the optimization algorithm
          */
-        System.out.println("======Q3 compare the Performance of the two versions======");
+        System.out.println("======Q3 compare sequential and parallel support counting======");
         String dataSetPath = "/Users/chenchenjunjie/m2/dm_cp/fim-pablo-junjie/datasets/BMS.txt";
         Apriori.comparePerformance(dataSetPath,0.05);
 
@@ -0,0 +1,29 @@
+import java.util.*;
+
+// Collects the frequent itemsets by level, like the List returned by Apriori.run():
+// index k - 1 holds the k-itemsets, and level 1 is always present
+public class MapSink implements ItemsetSink {
+    private final List<Map<Set<String>, Integer>> allFrequentItemsets = new ArrayList<>();
+    private ItemDictionary dictionary;
+
+    public MapSink() {
+        allFrequentItemsets.add(new HashMap<>());
+    }
+
+    @Override
+    public void open(ItemDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void onItemset(int[] items, int support) {
+        while (allFrequentItemsets.size() < items.length) {
+            allFrequentItemsets.add(new HashMap<>());
+        }
+        allFrequentItemsets.get(items.length - 1).put(dictionary.decode(items), support);
+    }
+
+    public List<Map<Set<String>, Integer>> getResult() {
+        return allFrequentItemsets;
+    }
+}
@@ -0,0 +1,43 @@
+// Supports of every pair of the items 0 .. items - 1 in one scan, in the upper half of an items x items
+// matrix flattened into counts: the pair a < b is at index(a, b). Item ids are ordered by descending
+// frequency and transactions are sorted, so the frequent items of a transaction are a prefix of it and
+// each transaction only costs the pairs of that prefix, without candidates or lookups.
+public class PairCounter extends SupportCounter {
+    public static final long MAX_PAIRS = 1L << 27; // Largest matrix worth allocating, in counters
+
+    private final int items;
+
+    public PairCounter(int items) {
+        super((int) pairs(items));
+        this.items = items;
+    }
+
+    public static long pairs(int items) {
+        return (long) items * (items - 1) / 2;
+    }
+
+    // Position of the pair a < b: the rows before a hold items - 1, items - 2, ... counters
+    public int index(int a, int b) {
+        return a * (2 * items - a - 1) / 2 + b - a - 1;
+    }
+
+    @Override
+    protected void count(Database database, int from, int to, int[] counts) {
+        int[] transactionItems = database.getItemArray();
+        int[] offsets = database.getOffsets();
+        for (int t = from; t < to; t++) {
+            int end = offsets[t];
+            while (end < offsets[t + 1] && transactionItems[end] < items) {
+                end++;
+            }
+            int weight = database.getWeight(t);
+            for (int p = offsets[t]; p < end - 1; p++) {
+                // counts[row + b] is the pair (transactionItems[p], b)
+                int row = index(transactionItems[p], 0);
+                for (int q = p + 1; q < end; q++) {
+                    counts[row + transactionItems[q]] += weight;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.util.*;
+
+// Out-of-core mining with the SON algorithm: the dataset file is read chunkSize transactions at a time.
+// Pass 1 mines every chunk on its own with FP-Growth at the same relative support: an itemset frequent in
+// the whole file is frequent in at least one chunk, so the union of the local results is a superset of the
+// answer. Pass 2 reads the file again and counts those candidates chunk by chunk. Memory holds one chunk
+// and the candidates, whatever the size of the file.
+public class PartitionMiner {
+    private double minSupport; // Minimum support threshold
+    private String filePath;
+    private int chunkSize; // Transactions per chunk
+
+    // Filled by the last run
+    private int transactionCount;
+    private int chunkCount;
+    private int candidateCount;
+
+    public PartitionMiner(String filePath, double minSupport, int chunkSize) {
+        this.filePath = filePath;
+        this.minSupport = minSupport;
+        this.chunkSize = chunkSize;
+    }
+
+    // Frequent itemsets of the whole file, indexed by level like Apriori.run()
+    public List<Map<Set<String>, Integer>> run() throws IOException {
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
+
+    public void run(ItemsetSink sink) throws IOException {
+        // Pass 1: local frequent itemsets of every chunk, as ids of a file-wide numbering of the items
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> labels = new ArrayList<>();
+        List<Integer> frequencies = new ArrayList<>();
+        Set<Itemset> candidates = new HashSet<>();
+        transactionCount = 0;
+        chunkCount = 0;
+        Utils.forEachChunk(filePath, chunkSize, chunk -> {
+            ItemDictionary chunkDictionary = chunk.getDictionary();
+            int[] globalIds = new int[chunkDictionary.size()];
+            for (int id = 0; id < globalIds.length; id++) {
+                String item = chunkDictionary.getItem(id);
+                Integer globalId = ids.get(item);
+                if (globalId == null) {
+                    globalId = labels.size();
+                    ids.put(item, globalId);
+                    labels.add(item);
+                    frequencies.add(0);
+                }
+                globalIds[id] = globalId;
+                frequencies.set(globalId, frequencies.get(globalId) + chunkDictionary.getFrequency(id));
+            }
+
+            new FPGrowth(chunk, minSupport).run((items, support) -> {
+                int[] itemset = new int[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    itemset[i] = globalIds[items[i]];
+                }
+                Arrays.sort(itemset);
+                candidates.add(new Itemset(itemset));
+            });
+            transactionCount += chunk.size();
+            chunkCount++;
+        });
+
+        String[] items = labels.toArray(new String[0]);
+        int[] itemFrequencies = new int[items.length];
+        for (int id = 0; id < items.length; id++) {
+            itemFrequencies[id] = frequencies.get(id);
+        }
+        ItemDictionary dictionary = new ItemDictionary(items, itemFrequencies);
+        int minCount = Math.max(1, (int) Math.ceil(minSupport * transactionCount));
+        candidateCount = candidates.size();
+        sink.open(dictionary);
+        try {
+            // Single items are counted exactly during pass 1 already
+            List<int[]> remaining = new ArrayList<>();
+            for (Itemset candidate : candidates) {
+                int[] itemset = candidate.getItems();
+                if (itemset.length > 1) {
+                    remaining.add(itemset);
+                } else if (itemFrequencies[itemset[0]] >= minCount) {
+                    sink.onItemset(itemset, itemFrequencies[itemset[0]]);
+                }
+            }
+            candidates.clear();
+
+            // Pass 2: global supports of the other candidates
+            if (!remaining.isEmpty()) {
+                remaining.sort(Arrays::compare);
+                int[] counts = new int[remaining.size()];
+                Utils.forEachChunk(filePath, chunkSize, chunk -> count(chunk, dictionary, remaining, counts));
+                for (int c = 0; c < counts.length; c++) {
+                    if (counts[c] >= minCount) {
+                        sink.onItemset(remaining.get(c), counts[c]);
+                    }
+                }
+            }
+        } finally {
+            sink.close();
+        }
+    }
+
+    // Add the supports in chunk of the lexicographically sorted candidates to counts. Consecutive
+    // candidates share prefixes, whose tid-list intersections are kept on a stack and reused.
+    // Dense chunks use one bitmask over the transactions per item instead of tid-lists.
+    private static void count(Database chunk, ItemDictionary dictionary, List<int[]> candidates, int[] counts) {
+        ItemDictionary chunkDictionary = chunk.getDictionary();
+        int[] chunkIds = new int[dictionary.size()];
+        Arrays.fill(chunkIds, -1);
+        for (int id = 0; id < chunkDictionary.size(); id++) {
+            chunkIds[dictionary.getId(chunkDictionary.getItem(id))] = id;
+        }
+        if (chunk.isDense()) {
+            countDense(chunk, chunkIds, candidates, counts);
+            return;
+        }
+
+        int[][] tidLists = chunk.buildTidLists();
+        int[] noTids = new int[0];
+        int[][] prefixTids = new int[0][];
+        int[] previous = new int[0];
+        for (int c = 0; c < candidates.size(); c++) {
+            int[] candidate = candidates.get(c);
+            if (prefixTids.length < candidate.length) {
+                prefixTids = Arrays.copyOf(prefixTids, candidate.length);
+            }
+            for (int i = sharedPrefix(previous, candidate); i < candidate.length; i++) {
+                int[] tids = chunkIds[candidate[i]] >= 0 ? tidLists[chunkIds[candidate[i]]] : noTids;
+                prefixTids[i] = i == 0 ? tids : Eclat.intersect(prefixTids[i - 1], tids, 0);
+            }
+            counts[c] += prefixTids[candidate.length - 1].length;
+            previous = candidate;
+        }
+    }
+
+    private static void countDense(Database chunk, int[] chunkIds, List<int[]> candidates, int[] counts) {
+        int words = (chunk.size() + 63) / 64;
+        long[][] itemBits = new long[chunk.getDictionary().size()][words];
+        int[] items = chunk.getItemArray();
+        int[] offsets = chunk.getOffsets();
+        for (int t = 0; t < chunk.size(); t++) {
+            for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                itemBits[items[p]][t >>> 6] |= 1L << t;
+            }
+        }
+
+        long[] noBits = new long[words];
+        long[][] prefixBits = new long[0][];
+        int[] previous = new int[0];
+        for (int c = 0; c < candidates.size(); c++) {
+            int[] candidate = candidates.get(c);
+            if (prefixBits.length < candidate.length) {
+                int depth = prefixBits.length;
+                prefixBits = Arrays.copyOf(prefixBits, candidate.length);
+                for (int i = depth; i < candidate.length; i++) {
+                    prefixBits[i] = new long[words];
+                }
+            }
+            for (int i = sharedPrefix(previous, candidate); i < candidate.length; i++) {
+                long[] bits = chunkIds[candidate[i]] >= 0 ? itemBits[chunkIds[candidate[i]]] : noBits;
+                long[] prefix = prefixBits[i];
+                for (int w = 0; w < words; w++) {
+                    prefix[w] = i == 0 ? bits[w] : prefixBits[i - 1][w] & bits[w];
+                }
+            }
+            int support = 0;
+            for (long word : prefixBits[candidate.length - 1]) {
+                support += Long.bitCount(word);
+            }
+            counts[c] += support;
+            previous = candidate;
+        }
+    }
+
+    // Length of the prefix the candidate shares with the previous one, whose intersections are still
+    // on the stack; at least the last item is always intersected again
+    private static int sharedPrefix(int[] previous, int[] candidate) {
+        int shared = Arrays.mismatch(previous, candidate);
+        return shared < 0 ? candidate.length - 1 : Math.min(shared, candidate.length - 1);
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    // Union of the local results, before pass 2
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+// Association rules from the frequent itemsets returned by Apriori.run() (or any downward closed result).
+// Supports are looked up in a hash index over the itemsets, never recounted in the database. The rules of
+// each itemset are built with ap-genrules: confidence can only drop when items move from the antecedent to
+// the consequent, so only the consequents that reach minConfidence are joined into larger consequents.
+// Lift, leverage and conviction have no such property and only filter the rules.
+public class RuleGenerator {
+    private final List<Map<Set<String>, Integer>> frequentItemsets;
+    private final int transactionCount;
+    private double minConfidence = 0.0;
+    private double minLift = 0.0;
+    private double minLeverage = -1.0;
+    private double minConviction = 0.0;
+    private int threads = 1; // Threads over which the itemsets are split
+
+    private ItemDictionary dictionary;
+    private Map<Itemset, Integer> supports;
+
+    public RuleGenerator(List<Map<Set<String>, Integer>> frequentItemsets, int transactionCount) {
+        this.frequentItemsets = frequentItemsets;
+        this.transactionCount = transactionCount;
+    }
+
+    public void setMinConfidence(double minConfidence) {
+        this.minConfidence = minConfidence;
+    }
+
+    public void setMinLift(double minLift) {
+        this.minLift = minLift;
+    }
+
+    public void setMinLeverage(double minLeverage) {
+        this.minLeverage = minLeverage;
+    }
+
+    public void setMinConviction(double minConviction) {
+        this.minConviction = minConviction;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    // Every rule with a non-empty antecedent and consequent passing all thresholds, grouped by itemset
+    public List<AssociationRule> generate() {
+        buildIndex();
+        List<int[]> itemsets = new ArrayList<>();
+        for (Itemset itemset : supports.keySet()) {
+            if (itemset.size() > 1) {
+                itemsets.add(itemset.getItems());
+            }
+        }
+        itemsets.sort(Arrays::compare);
+
+        if (threads <= 1) {
+            List<AssociationRule> rules = new ArrayList<>();
+            for (int[] itemset : itemsets) {
+                rules.addAll(rulesOf(itemset));
+            }
+            return rules;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> itemsets.parallelStream()
+                    .flatMap(itemset -> rulesOf(itemset).stream())
+                    .collect(Collectors.toList())).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Index every itemset by its sorted ids in a dictionary local to the result
+    private void buildIndex() {
+        Map<String, Integer> itemCounts = new HashMap<>();
+        for (Map<Set<String>, Integer> level : frequentItemsets) {
+            for (Set<String> itemset : level.keySet()) {
+                for (String item : itemset) {
+                    itemCounts.merge(item, 1, Integer::sum);
+                }
+            }
+        }
+        dictionary = new ItemDictionary(itemCounts);
+        supports = new HashMap<>();
+        for (Map<Set<String>, Integer> level : frequentItemsets) {
+            for (Map.Entry<Set<String>, Integer> entry : level.entrySet()) {
+                supports.put(new Itemset(dictionary.encode(entry.getKey())), entry.getValue());
+            }
+        }
+    }
+
+    // ap-genrules for one itemset: consequents grow one item at a time from the confident ones
+    private List<AssociationRule> rulesOf(int[] itemset) {
+        List<AssociationRule> rules = new ArrayList<>();
+        int support = supports.get(new Itemset(itemset));
+
+        List<int[]> consequents = new ArrayList<>(itemset.length);
+        for (int item : itemset) {
+            consequents.add(new int[]{item});
+        }
+        while (!consequents.isEmpty()) {
+            List<int[]> confident = new ArrayList<>();
+            for (int[] consequent : consequents) {
+                int[] antecedent = difference(itemset, consequent);
+                int antecedentSupport = supportOf(antecedent);
+                if ((double) support / antecedentSupport < minConfidence) {
+                    continue;
+                }
+                confident.add(consequent);
+
+                AssociationRule rule = new AssociationRule(dictionary.decode(antecedent), dictionary.decode(consequent),
+                        support, antecedentSupport, supportOf(consequent), transactionCount);
+                if (rule.getLift() >= minLift && rule.getLeverage() >= minLeverage
+                        && rule.getConviction() >= minConviction) {
+                    rules.add(rule);
+                }
+            }
+            // The antecedent must keep at least one item
+            if (confident.isEmpty() || confident.get(0).length + 1 >= itemset.length) {
+                break;
+            }
+            consequents = AprioriGen.generate(confident);
+        }
+        return rules;
+    }
+
+    private int supportOf(int[] itemset) {
+        Integer support = supports.get(new Itemset(itemset));
+        if (support == null) {
+            throw new IllegalArgumentException("The frequent itemsets are not downward closed: "
+                    + dictionary.decode(itemset) + " is missing");
+        }
+        return support;
+    }
+
+    // Items of the sorted itemset that are not in the sorted subset
+    private static int[] difference(int[] itemset, int[] subset) {
+        int[] result = new int[itemset.length - subset.length];
+        for (int i = 0, j = 0, n = 0; i < itemset.length; i++) {
+            if (j < subset.length && itemset[i] == subset[j]) {
+                j++;
+            } else {
+                result[n++] = itemset[i];
+            }
+        }
+        return result;
+    }
+}
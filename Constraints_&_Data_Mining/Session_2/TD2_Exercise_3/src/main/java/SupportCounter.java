@@ -0,0 +1,85 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Counts the supports of one level's candidates over a Database, sequentially or on a thread pool.
+// forCandidates picks the representation: word-wise bitset tests on dense databases,
+// a candidate trie otherwise.
+public abstract class SupportCounter {
+    protected final int candidateCount;
+
+    protected SupportCounter(int candidateCount) {
+        this.candidateCount = candidateCount;
+    }
+
+    public static SupportCounter forCandidates(Database database, List<int[]> candidates) {
+        if (database.isDense()) {
+            return new BitsetCounter(database, candidates);
+        }
+        return new CandidateTrie(candidates);
+    }
+
+    // Add the supports within transactions [from, to) to counts
+    protected abstract void count(Database database, int from, int to, int[] counts);
+
+    // counts[c] is the support of candidate c in the database
+    public int[] count(Database database) {
+        int[] counts = new int[candidateCount];
+        if (candidateCount > 0) {
+            count(database, 0, database.size(), counts);
+        }
+        return counts;
+    }
+
+    // Same counts as count(database), with the transactions split into chunks counted on a pool of
+    // the given size. Each chunk fills its own counter array and the arrays are summed on join.
+    public int[] count(Database database, int threads) {
+        if (threads <= 1 || candidateCount == 0) {
+            return count(database);
+        }
+        int grain = Math.max(256, database.size() / (threads * 8));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new CountTask(this, database, 0, database.size(), grain));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks never leave the pool, so neither the counter nor the database is ever serialized
+        private final transient SupportCounter counter;
+        private final transient Database database;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        private CountTask(SupportCounter counter, Database database, int from, int to, int grain) {
+            this.counter = counter;
+            this.database = database;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= grain) {
+                int[] counts = new int[counter.candidateCount];
+                counter.count(database, from, to, counts);
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(counter, database, from, middle, grain);
+            left.fork();
+            int[] counts = new CountTask(counter, database, middle, to, grain).compute();
+            int[] leftCounts = left.join();
+            for (int c = 0; c < counts.length; c++) {
+                counts[c] += leftCounts[c];
+            }
+            return counts;
+        }
+    }
+}
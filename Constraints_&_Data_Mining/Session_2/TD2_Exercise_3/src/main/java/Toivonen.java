@@ -0,0 +1,115 @@
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+// Toivonen's sampling: the frequent itemsets of a random sample, mined at a lowered threshold, are
+// checked in a single pass over the whole database together with their negative border (the itemsets
+// that are not frequent in the sample but whose subsets all are). If no itemset of the negative border
+// turns out to be frequent, no frequent itemset can have been missed; otherwise some may have been.
+public class Toivonen {
+    // Probability allowed for an itemset to fall below the lowered threshold in the sample
+    public static final double MISS_PROBABILITY = 0.01;
+
+    private final Database database;
+    private final Database sample;
+    private final Map<Set<String>, Integer> negativeBorder = new HashMap<>();
+    private boolean missPossible;
+
+    public Toivonen(Database database, double fraction, long seed) {
+        this.database = database;
+        this.sample = database.sample(fraction, seed);
+    }
+
+    public Database getSample() {
+        return sample;
+    }
+
+    // Threshold to mine the sample at: by Hoeffding's bound an itemset of support minSupport has a
+    // sample support below it with probability MISS_PROBABILITY. Never lowered below half of minSupport.
+    public double lowerSupport(double minSupport) {
+        double margin = Math.sqrt(Math.log(1 / MISS_PROBABILITY) / (2.0 * Math.max(1, sample.size())));
+        return Math.max(minSupport / 2, minSupport - margin);
+    }
+
+    // Count the sample's frequent itemsets and their negative border on the whole database, and send the
+    // itemsets whose exact support reaches minCount.applyAsInt(k) (for a k-itemset) to sink.
+    // Returns whether a frequent itemset may be missing from the result.
+    public boolean verify(List<Map<Set<String>, Integer>> sampleItemsets, IntUnaryOperator minCount,
+                          int threads, ItemsetSink sink) {
+        ItemDictionary dictionary = database.getDictionary();
+        negativeBorder.clear();
+        missPossible = false;
+        sink.open(dictionary);
+        try {
+            // Level 1: item supports are exact in the dictionary; the items missing from the sample's
+            // frequent items are the negative border of size 1
+            Set<Itemset> previousLevel = new HashSet<>();
+            for (Set<String> itemset : sampleItemsets.get(0).keySet()) {
+                previousLevel.add(new Itemset(dictionary.encode(itemset)));
+            }
+            for (int id = 0; id < dictionary.size(); id++) {
+                int[] item = {id};
+                int support = dictionary.getFrequency(id);
+                if (!previousLevel.contains(new Itemset(item))) {
+                    addToBorder(item, support, Math.max(1, minCount.applyAsInt(1)));
+                } else if (support >= minCount.applyAsInt(1)) {
+                    sink.onItemset(item, support);
+                }
+            }
+
+            // Higher levels: the sample's k-itemsets, and the candidates generated from its (k-1)-itemsets
+            // that are not among them, all counted in one pass
+            List<int[]> sampleFrequent = new ArrayList<>();
+            List<int[]> border = new ArrayList<>();
+            for (int k = 2; !previousLevel.isEmpty(); k++) {
+                Set<Itemset> level = new HashSet<>();
+                if (k <= sampleItemsets.size()) {
+                    for (Set<String> itemset : sampleItemsets.get(k - 1).keySet()) {
+                        level.add(new Itemset(dictionary.encode(itemset)));
+                    }
+                }
+                List<int[]> previous = new ArrayList<>(previousLevel.size());
+                for (Itemset itemset : previousLevel) {
+                    previous.add(itemset.getItems());
+                }
+                for (int[] candidate : AprioriGen.generate(previous)) {
+                    (level.contains(new Itemset(candidate)) ? sampleFrequent : border).add(candidate);
+                }
+                previousLevel = level;
+            }
+
+            List<int[]> candidates = new ArrayList<>(sampleFrequent);
+            candidates.addAll(border);
+            int[] counts = SupportCounter.forCandidates(database, candidates).count(database, threads);
+            for (int c = 0; c < candidates.size(); c++) {
+                int[] itemset = candidates.get(c);
+                int threshold = Math.max(1, minCount.applyAsInt(itemset.length));
+                if (c >= sampleFrequent.size()) {
+                    addToBorder(itemset, counts[c], threshold);
+                } else if (counts[c] >= threshold) {
+                    sink.onItemset(itemset, counts[c]);
+                }
+            }
+
+        } finally {
+            sink.close();
+        }
+        return missPossible;
+    }
+
+    private void addToBorder(int[] itemset, int support, int threshold) {
+        negativeBorder.put(database.getDictionary().decode(itemset), support);
+        if (support >= threshold) {
+            missPossible = true;
+        }
+    }
+
+    // Negative border of the last verification, with exact supports in the whole database
+    public Map<Set<String>, Integer> getNegativeBorder() {
+        return negativeBorder;
+    }
+
+    // Whether the last verification found a frequent itemset in the negative border
+    public boolean isMissPossible() {
+        return missPossible;
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.*;
+
+// The k most frequent itemsets of at least minLength items, without a support threshold to choose.
+// Depth-first search over tid-lists like Eclat, visiting the most frequent items first. The best itemsets
+// found so far are kept in a heap and the k-th best support becomes the internal threshold: it only rises,
+// and it prunes both the extensions to try and the tid-list intersections.
+// Itemsets tied with the k-th best support are all returned, so the result may hold more than k itemsets.
+public class TopKMiner {
+    private int k; // Number of itemsets wanted
+    private int minLength; // Minimum size of the itemsets
+    private Database database;
+
+    private TreeMap<Integer, List<int[]>> best; // Best itemsets so far, by support
+    private int bestCount;
+    private int supportThreshold;
+
+    public TopKMiner(Database database, int k, int minLength) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1, got " + k);
+        }
+        if (minLength < 1) {
+            throw new IllegalArgumentException("minLength must be at least 1, got " + minLength);
+        }
+        this.database = database;
+        this.k = k;
+        this.minLength = minLength;
+    }
+
+    // Top-k itemsets indexed by level like Apriori.run()
+    public List<Map<Set<String>, Integer>> run() {
+        MapSink sink = new MapSink();
+        run(sink);
+        return sink.getResult();
+    }
+
+    public void run(ItemsetSink sink) {
+        best = new TreeMap<>();
+        bestCount = 0;
+        supportThreshold = 1;
+
+        // Items by descending frequency, i.e. ascending ids
+        int[][] tidLists = database.buildTidLists();
+        int[] items = new int[tidLists.length];
+        for (int id = 0; id < items.length; id++) {
+            items[id] = id;
+            if (minLength <= 1) {
+                offer(new int[]{id}, tidLists[id].length);
+            }
+        }
+        mine(new int[0], items, tidLists);
+
+        sink.open(database.getDictionary());
+        try {
+            for (Map.Entry<Integer, List<int[]>> entry : best.descendingMap().entrySet()) {
+                for (int[] itemset : entry.getValue()) {
+                    sink.onItemset(itemset, entry.getKey());
+                }
+            }
+        } finally {
+            sink.close();
+        }
+    }
+
+    // Support of the last of the returned itemsets once run() is over: mining with this minimum count
+    // gives back the same itemsets of at least minLength items
+    public int getSupportThreshold() {
+        return supportThreshold;
+    }
+
+    // Every items[i] extends prefix into an itemset whose tids are tidLists[i], already offered.
+    // The extensions of an itemset are all offered before any of them is explored, strongest first,
+    // so that the threshold rises before the search goes deeper.
+    private void mine(int[] prefix, int[] items, int[][] tidLists) {
+        for (int i = 0; i < items.length; i++) {
+            // The threshold may have risen since the extension was built
+            if (tidLists[i].length < supportThreshold) {
+                break;
+            }
+            int[] itemset = Arrays.copyOf(prefix, prefix.length + 1);
+            itemset[prefix.length] = items[i];
+
+            // Frequent extensions e (with the item items[i + 1 + e]) and their tids in extensionTids[e]
+            Integer[] extensions = new Integer[items.length - i - 1];
+            int[][] extensionTids = new int[items.length - i - 1][];
+            int size = 0;
+            for (int e = 0; e < extensionTids.length; e++) {
+                // Tid-lists come by descending length: no later item can reach the threshold either
+                if (tidLists[i + 1 + e].length < supportThreshold) {
+                    break;
+                }
+                extensionTids[e] = Eclat.intersect(tidLists[i], tidLists[i + 1 + e], supportThreshold);
+                if (extensionTids[e] != null) {
+                    extensions[size++] = e;
+                }
+            }
+
+            // Any order of the extensions enumerates every superset once; the strongest go first
+            Arrays.sort(extensions, 0, size, (a, b) -> Integer.compare(extensionTids[b].length, extensionTids[a].length));
+            int[] nextItems = new int[size];
+            int[][] nextTidLists = new int[size][];
+            for (int n = 0; n < size; n++) {
+                nextItems[n] = items[i + 1 + extensions[n]];
+                nextTidLists[n] = extensionTids[extensions[n]];
+                if (itemset.length + 1 >= minLength) {
+                    int[] extension = Arrays.copyOf(itemset, itemset.length + 1);
+                    extension[itemset.length] = nextItems[n];
+                    offer(extension, nextTidLists[n].length);
+                }
+            }
+            if (size > 0) {
+                mine(itemset, nextItems, nextTidLists);
+            }
+        }
+    }
+
+    // Keep the itemset, drop the lowest support while k itemsets remain without it, and raise the
+    // threshold to the k-th best support
+    private void offer(int[] itemset, int support) {
+        best.computeIfAbsent(support, s -> new ArrayList<>()).add(itemset);
+        bestCount++;
+        while (bestCount - best.firstEntry().getValue().size() >= k) {
+            bestCount -= best.pollFirstEntry().getValue().size();
+        }
+        if (bestCount >= k) {
+            supportThreshold = best.firstKey();
+        }
+    }
+}
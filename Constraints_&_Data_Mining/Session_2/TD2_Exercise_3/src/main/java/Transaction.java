@@ -1,18 +1,41 @@
+import java.util.Map;
 import java.util.Set;
 
 public class Transaction {
     private Set<String> items;
+    private Map<String, Integer> quantities; // Quantity of every item, or null when the items carry none
 
     public Transaction(Set<String> items) {
         this.items = items;
     }
 
+    // Transaction of a weighted dataset, from the "item:qty" tokens of its line; quantities are positive
+    public Transaction(Map<String, Integer> quantities) {
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() < 1) {
+                throw new IllegalArgumentException("Quantities must be positive, got "
+                        + entry.getKey() + " = " + entry.getValue());
+            }
+        }
+        this.items = quantities.keySet();
+        this.quantities = quantities;
+    }
+
     public Set<String> getItems() {
         return items;
     }
 
+    public boolean hasQuantities() {
+        return quantities != null;
+    }
+
+    // Quantity of one of the transaction's items, 1 when the transaction carries no quantities
+    public int getQuantity(String item) {
+        return quantities == null ? 1 : quantities.get(item);
+    }
+
     @Override
     public String toString() {
-        return items.toString();
+        return quantities == null ? items.toString() : quantities.toString();
     }
-}
\ No newline at end of file
+}
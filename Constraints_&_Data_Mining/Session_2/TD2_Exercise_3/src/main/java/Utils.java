@@ -1,28 +1,371 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class Utils {
+    private static final long MAP_WINDOW = 1L << 28; // Bytes mapped at a time
+
+    // Load a dataset through the binary cache, unless the system property fim.cache is false
     public static Database loadDataset(String filePath) throws IOException {
-        List<Transaction> transactions = new ArrayList<>();
+        return loadDataset(filePath, Boolean.parseBoolean(System.getProperty("fim.cache", "true")));
+    }
+
+    // Parse a dataset through the memory-mapped integer tokenizer when every item is a non-negative
+    // integer, or the line-based text reader if not. With useCache, load it from its binary cache when
+    // the cache is newer than the text file, and otherwise parse it and refresh the cache; a cache that
+    // cannot be written only costs the next run a re-parse.
+    public static Database loadDataset(String filePath, boolean useCache) throws IOException {
+        long startTime = System.nanoTime();
+
+        Path source = Path.of(filePath);
+        Path cache = cachePath(filePath);
+        Database database = null;
+        String origin = "the binary cache";
+        if (useCache && Files.exists(cache) && Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(source)) > 0) {
+            try {
+                database = DatabaseCache.read(cache);
+            } catch (IOException e) {
+                System.out.println("Could not read the binary cache " + cache + ": " + e.getMessage());
+            }
+        }
+        if (database == null) {
+            origin = "the dataset";
+            database = loadMappedDataset(filePath);
+            if (database == null) {
+                database = loadTextDataset(filePath);
+            }
+            if (useCache) {
+                try {
+                    Files.createDirectories(cache.getParent());
+                    DatabaseCache.write(database, cache);
+                } catch (IOException e) {
+                    System.out.println("Could not write the binary cache " + cache + ": " + e.getMessage());
+                }
+            }
+        }
+
+        long loadTime = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.println("Loaded " + database.size() + " transactions from " + origin + " in " + loadTime + " ms.");
+        return database;
+    }
+
+    // Binary cache of the dataset, in the directory given by the system property fim.cache.dir or else in
+    // fim-cache under the temporary directory, so datasets may sit in a read-only directory. The file name
+    // holds a hash of the absolute path: datasets with the same name in different directories do not clash.
+    public static Path cachePath(String filePath) {
+        Path source = Path.of(filePath).toAbsolutePath().normalize();
+        String directory = System.getProperty("fim.cache.dir",
+                Path.of(System.getProperty("java.io.tmpdir"), "fim-cache").toString());
+        return Path.of(directory).resolve(source.getFileName() + "-"
+                + Integer.toHexString(source.toString().hashCode()) + ".fimc");
+    }
+
+    // Line-based reader for datasets with arbitrary item labels. A token "item:qty", qty being a run of
+    // digits, gives the item a quantity (weighted datasets); an item without one has quantity 1. Quantities
+    // must fit in an int and be positive, even once a repeated item adds them up: a line breaking this is
+    // rejected with an IOException.
+    public static Database loadTextDataset(String filePath) throws IOException {
+        Database[] database = new Database[1];
+        forEachChunk(filePath, Integer.MAX_VALUE, chunk -> database[0] = chunk);
+        return database[0];
+    }
+
+    // Read the dataset chunkSize transactions at a time, in the format of loadTextDataset, and hand
+    // every chunk to action as a Database of its own. Only one chunk is held in memory at a time.
+    public static void forEachChunk(String filePath, int chunkSize, Consumer<Database> action) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        List<int[]> rowQuantities = new ArrayList<>();
+        boolean weighted = false; // Whether a row of the chunk has an "item:qty" token
+        Map<String, Integer> itemCounts = new HashMap<>();
+        int totalItems = 0;
+        boolean empty = true;
+        int lineNumber = 0;
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             String line;
             while ((line = reader.readLine()) != null) {
+                lineNumber++;
                 // Ignore lines starting with "#" or empty lines
                 if (line.startsWith("#") || line.trim().isEmpty()) {
                     continue;
                 }
 
-                // Split by whitespace (spaces, tabs, etc.)
-                String[] tokens = line.trim().split("\\s+");
-                Set<String> items = new HashSet<>(Arrays.asList(tokens));
+                // Split by whitespace (spaces, tabs, etc.); a repeated item adds up its quantities
+                Map<String, Integer> row = new LinkedHashMap<>();
+                for (String token : line.trim().split("\\s+")) {
+                    int colon = token.lastIndexOf(':');
+                    String item = token;
+                    long quantity = 1;
+                    if (colon > 0 && isQuantity(token, colon + 1)) {
+                        item = token.substring(0, colon);
+                        quantity = parseQuantity(token, colon + 1);
+                        weighted = true;
+                    }
+                    quantity = Math.addExact(quantity, row.getOrDefault(item, 0));
+                    if (quantity < 1 || quantity > Integer.MAX_VALUE) {
+                        throw new IOException(filePath + ":" + lineNumber + ": the quantity of " + item
+                                + " must be between 1 and " + Integer.MAX_VALUE + ", got " + token);
+                    }
+                    row.put(item, (int) quantity);
+                }
+                String[] tokens = row.keySet().toArray(new String[0]);
+                int[] quantities = new int[tokens.length];
+                for (int i = 0; i < tokens.length; i++) {
+                    itemCounts.merge(tokens[i], 1, Integer::sum);
+                    quantities[i] = row.get(tokens[i]);
+                }
+                totalItems += tokens.length;
+                rows.add(tokens);
+                rowQuantities.add(quantities);
+
+                if (rows.size() == chunkSize) {
+                    action.accept(encodeRows(rows, weighted ? rowQuantities : null, itemCounts, totalItems));
+                    empty = false;
+                    rows.clear();
+                    rowQuantities.clear();
+                    weighted = false;
+                    itemCounts.clear();
+                    totalItems = 0;
+                }
+            }
+        }
+        // An empty dataset still comes as one empty chunk
+        if (!rows.isEmpty() || empty) {
+            action.accept(encodeRows(rows, weighted ? rowQuantities : null, itemCounts, totalItems));
+        }
+    }
+
+    // Whether token[from..] is a non-empty run of ASCII digits; other labels with a colon are plain items
+    private static boolean isQuantity(String token, int from) {
+        if (from == token.length()) {
+            return false;
+        }
+        for (int i = from; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Value of the digits token[from..], saturated just above Integer.MAX_VALUE so it is caught as too large
+    private static long parseQuantity(String token, int from) {
+        long quantity = 0;
+        for (int i = from; i < token.length() && quantity <= Integer.MAX_VALUE; i++) {
+            quantity = quantity * 10 + (token.charAt(i) - '0');
+        }
+        return quantity;
+    }
+
+    // Encode every transaction as a sorted run of frequency-ordered item ids, with the quantities
+    // following their items when rowQuantities is not null
+    private static Database encodeRows(List<String[]> rows, List<int[]> rowQuantities,
+                                       Map<String, Integer> itemCounts, int totalItems) {
+        ItemDictionary dictionary = new ItemDictionary(itemCounts);
+        int[] items = new int[totalItems];
+        int[] quantities = rowQuantities != null ? new int[totalItems] : null;
+        int[] offsets = new int[rows.size() + 1];
+        long[] pairs = new long[0];
+        int pos = 0;
+        for (int t = 0; t < rows.size(); t++) {
+            String[] row = rows.get(t);
+            if (quantities == null) {
+                int start = pos;
+                for (String item : row) {
+                    items[pos++] = dictionary.getId(item);
+                }
+                Arrays.sort(items, start, pos);
+            } else {
+                // Sort (id, quantity) pairs packed in longs by id
+                if (pairs.length < row.length) {
+                    pairs = new long[row.length];
+                }
+                for (int i = 0; i < row.length; i++) {
+                    pairs[i] = (long) dictionary.getId(row[i]) << 32 | (rowQuantities.get(t)[i] & 0xFFFFFFFFL);
+                }
+                Arrays.sort(pairs, 0, row.length);
+                for (int i = 0; i < row.length; i++, pos++) {
+                    items[pos] = (int) (pairs[i] >>> 32);
+                    quantities[pos] = (int) pairs[i];
+                }
+            }
+            offsets[t + 1] = pos;
+        }
+        Database database = new Database(dictionary, items, offsets);
+        return quantities != null ? database.withQuantities(quantities) : database;
+    }
+
+    // Memory-map the file and tokenize integer items straight from the bytes into a CSR layout.
+    // Returns null as soon as a token is not a non-negative integer, or has a leading zero: "007" and
+    // "7" are different labels, which the integer values would merge.
+    public static Database loadMappedDataset(String filePath) throws IOException {
+        int[] items = new int[1 << 16];
+        int[] offsets = new int[1 << 10];
+        int transactions = 0;
+        int size = 0;
+        int maxItem = 0;
+
+        // Tokenizer state survives across mapping windows
+        boolean lineStart = true;
+        boolean comment = false;
+        boolean inToken = false;
+        long value = 0;
+
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            for (long position = 0; position <= fileSize; position += MAP_WINDOW) {
+                long length = Math.min(MAP_WINDOW, fileSize - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean endOfFile = position + length == fileSize;
+                for (long i = 0; i <= length; i++) {
+                    // A virtual newline after the last byte closes the final line
+                    int b = i < length ? buffer.get((int) i) : (endOfFile ? '\n' : -1);
+                    if (b == -1) {
+                        break;
+                    }
+                    if (size == items.length) {
+                        items = Arrays.copyOf(items, size * 2);
+                    }
+
+                    if (b == '\n') {
+                        if (inToken) {
+                            items[size++] = (int) value;
+                            maxItem = Math.max(maxItem, (int) value);
+                        }
+                        // Ignore lines starting with "#" or empty lines
+                        if (!comment && size > offsets[transactions]) {
+                            if (transactions + 2 > offsets.length) {
+                                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                            }
+                            offsets[transactions + 1] = sortUnique(items, offsets[transactions], size);
+                            transactions++;
+                        }
+                        size = offsets[transactions];
+                        lineStart = true;
+                        comment = false;
+                        inToken = false;
+                        value = 0;
+                        continue;
+                    }
+                    if (lineStart && b == '#') {
+                        comment = true;
+                    }
+                    lineStart = false;
+                    if (comment) {
+                        continue;
+                    }
+
+                    if (b >= '0' && b <= '9') {
+                        if (inToken && value == 0) {
+                            return null;
+                        }
+                        value = value * 10 + (b - '0');
+                        if (value > Integer.MAX_VALUE) {
+                            return null;
+                        }
+                        inToken = true;
+                    } else if (b == ' ' || b == '\t' || b == '\r') {
+                        if (inToken) {
+                            items[size++] = (int) value;
+                            maxItem = Math.max(maxItem, (int) value);
+                        }
+                        inToken = false;
+                        value = 0;
+                    } else {
+                        return null;
+                    }
+                }
+                if (endOfFile) {
+                    break;
+                }
+            }
+        }
+        items = Arrays.copyOf(items, size);
+        offsets = Arrays.copyOf(offsets, transactions + 1);
+
+        // Item supports over the raw integer values, then one dictionary entry per distinct item
+        Map<Integer, Integer> rawCounts = new HashMap<>();
+        int[] denseCounts = maxItem < (1 << 24) ? new int[maxItem + 1] : null;
+        for (int item : items) {
+            if (denseCounts != null) {
+                denseCounts[item]++;
+            } else {
+                rawCounts.merge(item, 1, Integer::sum);
+            }
+        }
+        if (denseCounts != null) {
+            for (int item = 0; item < denseCounts.length; item++) {
+                if (denseCounts[item] > 0) {
+                    rawCounts.put(item, denseCounts[item]);
+                }
+            }
+        }
+        Map<String, Integer> itemCounts = new HashMap<>(rawCounts.size() * 2);
+        for (Map.Entry<Integer, Integer> entry : rawCounts.entrySet()) {
+            itemCounts.put(Integer.toString(entry.getKey()), entry.getValue());
+        }
+        ItemDictionary dictionary = new ItemDictionary(itemCounts);
+
+        // Rewrite raw values as frequency-ordered ids and restore the sorted order of each transaction
+        Map<Integer, Integer> rawToId = denseCounts == null ? new HashMap<>() : null;
+        int[] denseToId = denseCounts;
+        for (int id = 0; id < dictionary.size(); id++) {
+            int raw = Integer.parseInt(dictionary.getItem(id));
+            if (denseToId != null) {
+                denseToId[raw] = id;
+            } else {
+                rawToId.put(raw, id);
+            }
+        }
+        for (int p = 0; p < items.length; p++) {
+            items[p] = denseToId != null ? denseToId[items[p]] : rawToId.get(items[p]);
+        }
+        for (int t = 0; t < transactions; t++) {
+            Arrays.sort(items, offsets[t], offsets[t + 1]);
+        }
+        return new Database(dictionary, items, offsets);
+    }
+
+    // Sort items[from, to) and drop repeated items; returns the new end of the slice
+    private static int sortUnique(int[] items, int from, int to) {
+        Arrays.sort(items, from, to);
+        int end = from;
+        for (int p = from; p < to; p++) {
+            if (p == from || items[p] != items[end - 1]) {
+                items[end++] = items[p];
+            }
+        }
+        return end;
+    }
+
+    // Start measuring the heap peak from the live data only. Runs a full GC: for measurement harnesses
+    public static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
 
-                // Add a new transaction
-                transactions.add(new Transaction(items));
+    // Sum of the heap pools' peak usage since the last reset
+    public static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
             }
         }
-        System.out.println("Loaded " + transactions.size() + " transactions from the dataset.");
-        return new Database(transactions);
+        return peak;
     }
-}
\ No newline at end of file
+}
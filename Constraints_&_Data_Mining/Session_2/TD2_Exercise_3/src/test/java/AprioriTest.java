@@ -1,6 +1,7 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -58,6 +59,16 @@ class AprioriTest {
         assertEquals(expected, result, "Les candidats générés ne correspondent pas aux attentes.");
     }
 
+    @Test
+    void testGenerateCandidatesPrunesInfrequentSubsets() {
+        // {B, C} n'est pas fréquent : {A, B, C} doit être élagué avant le comptage
+        Set<Set<String>> previousItemsets = Set.of(Set.of("A", "B"), Set.of("A", "C"));
+
+        Set<Set<String>> result = apriori.generateCandidates(previousItemsets);
+
+        assertEquals(Set.of(), result, "Un candidat avec un sous-ensemble non fréquent n'a pas été élagué.");
+    }
+
     @Test
     void testCountSupport() {
         // Candidats à tester
@@ -135,4 +146,64 @@ class AprioriTest {
         // Vérification des résultats
         assertEquals(expected, result, "Les itemsets fréquents générés par Apriori ne correspondent pas aux attentes.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRunWithThreadsMatchesSequential() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        List<Map<Set<String>, Integer>> expected = new Apriori(vote, 0.3).run();
+
+        // Comptage réparti sur 4 threads : le résultat doit être identique
+        Apriori parallelApriori = new Apriori(vote, 0.3);
+        parallelApriori.setThreads(4);
+        List<Map<Set<String>, Integer>> result = parallelApriori.run();
+
+        assertEquals(expected, result, "Le comptage parallèle ne correspond pas au comptage séquentiel.");
+    }
+
+    @Test
+    void testSamplingReportsExactSupports() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        Map<Set<String>, Integer> exact = new HashMap<>();
+        new Apriori(vote, 0.3).run().forEach(exact::putAll);
+
+        Apriori sampledApriori = new Apriori(vote, 0.3);
+        sampledApriori.setSampling(0.5, 7);
+        Map<Set<String>, Integer> sampled = new HashMap<>();
+        sampledApriori.run().forEach(sampled::putAll);
+
+        // Les supports vérifiés sur toute la base sont exacts
+        for (Map.Entry<Set<String>, Integer> entry : sampled.entrySet()) {
+            assertEquals(exact.get(entry.getKey()), entry.getValue(), "Support inexact pour " + entry.getKey());
+        }
+        // Avec cette graine, aucun itemset de la bordure négative n'est fréquent : rien ne manque
+        assertFalse(sampledApriori.isMissPossible());
+        assertEquals(exact, sampled);
+        assertFalse(sampledApriori.getNegativeBorder().isEmpty());
+    }
+
+    @Test
+    void testSamplingReportsPossibleMisses() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        Map<Set<String>, Integer> exact = new HashMap<>();
+        new Apriori(vote, 0.3).run().forEach(exact::putAll);
+
+        // Échantillon de 5 % : avec cette graine, des itemsets fréquents tombent dans la bordure négative
+        Apriori sampledApriori = new Apriori(vote, 0.3);
+        sampledApriori.setSampling(0.05, 2);
+        Map<Set<String>, Integer> sampled = new HashMap<>();
+        sampledApriori.run().forEach(sampled::putAll);
+        assertTrue(sampledApriori.isMissPossible());
+
+        Set<Set<String>> missed = new HashSet<>(exact.keySet());
+        missed.removeAll(sampled.keySet());
+        assertFalse(missed.isEmpty());
+        Map<Set<String>, Integer> border = sampledApriori.getNegativeBorder();
+        for (Set<String> itemset : missed) {
+            assertEquals(exact.get(itemset), border.get(itemset), itemset + " manque hors de la bordure négative");
+        }
+        // Ce qui est rapporté reste exact
+        for (Map.Entry<Set<String>, Integer> entry : sampled.entrySet()) {
+            assertEquals(exact.get(entry.getKey()), entry.getValue(), "Support inexact pour " + entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.variables.BoolVar;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChocoMinerTest {
+
+    private static Map<Set<String>, Integer> flatten(List<Map<Set<String>, Integer>> levels) {
+        Map<Set<String>, Integer> itemsets = new HashMap<>();
+        levels.forEach(itemsets::putAll);
+        return itemsets;
+    }
+
+    @Test
+    void testMatchesBottomUpAndClosedMiner() throws IOException {
+        for (String dataset : List.of("datasets/lazaar.txt", "datasets/mushroom.txt")) {
+            Database database = Utils.loadDataset(dataset);
+            double minSupport = dataset.contains("lazaar") ? 0.2 : 0.3;
+
+            // Le modèle CP énumère exactement les itemsets fréquents, puis les fermés avec la closure
+            ChocoMiner miner = new ChocoMiner(database, minSupport);
+            assertEquals(flatten(new BottomUp(database, minSupport).run()), flatten(miner.run()));
+            miner.setClosed(true);
+            assertEquals(flatten(new ClosedMiner(database, minSupport).runClosed()), flatten(miner.run()));
+            // Le modèle peut être résolu à nouveau sans la closure
+            miner.setClosed(false);
+            assertEquals(flatten(new BottomUp(database, minSupport).run()), flatten(miner.run()));
+        }
+    }
+
+    @Test
+    void testNoFrequentItem() throws IOException {
+        // Seuil au-dessus de la fréquence de chaque item : aucun modèle à résoudre, résultat vide
+        Database empty = new Database(Arrays.asList(new Transaction(Set.of()), new Transaction(Set.of())));
+        assertEquals(flatten(new BottomUp(empty, 0.46).run()), flatten(new ChocoMiner(empty, 0.46).run()));
+        assertTrue(flatten(new ChocoMiner(empty, 0.46).run()).isEmpty());
+
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        ChocoMiner miner = new ChocoMiner(vote, 1.0);
+        assertEquals(0, miner.getItemVars().length);
+        assertTrue(flatten(miner.run()).isEmpty());
+        miner.setClosed(true);
+        assertTrue(flatten(miner.run()).isEmpty());
+    }
+
+    @Test
+    void testSideConstraints() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        ItemDictionary dictionary = vote.getDictionary();
+        ItemsetConstraints constraints = new ItemsetConstraints();
+        constraints.addRequired(dictionary.getItem(4));
+        constraints.addExcluded(dictionary.getItem(0));
+        constraints.setMinLength(2);
+        constraints.setMaxLength(3);
+
+        // Les mêmes contraintes, postées dans le modèle Choco
+        ChocoMiner miner = new ChocoMiner(vote, 0.3);
+        Model model = miner.getModel();
+        BoolVar[] items = miner.getItemVars();
+        model.arithm(miner.getItemVar(dictionary.getItem(4)), "=", 1).post();
+        model.arithm(miner.getItemVar(dictionary.getItem(0)), "=", 0).post();
+        model.sum(items, ">=", 2).post();
+        model.sum(items, "<=", 3).post();
+
+        Map<Set<String>, Integer> expected = flatten(new BottomUp(vote, 0.3).run());
+        expected.keySet().removeIf(itemset -> !constraints.accepts(itemset));
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, flatten(miner.run()));
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClosedMinerTest {
+
+    private Database database;
+    private Map<Set<String>, Integer> frequentItemsets;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        database = Utils.loadDataset("datasets/lazaar.txt");
+        frequentItemsets = new HashMap<>();
+        for (Map<Set<String>, Integer> level : new FPGrowth(database, 0.2).run()) {
+            frequentItemsets.putAll(level);
+        }
+    }
+
+    @Test
+    void testRunClosed() {
+        Map<Set<String>, Integer> closed = flatten(new ClosedMiner(database, 0.2).runClosed());
+
+        // Un itemset est fermé si aucune extension n'a le même support
+        Map<Set<String>, Integer> expected = new HashMap<>();
+        for (Map.Entry<Set<String>, Integer> entry : frequentItemsets.entrySet()) {
+            if (extensionSupports(entry.getKey()).stream().noneMatch(entry.getValue()::equals)) {
+                expected.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        assertEquals(expected, closed, "Les itemsets fermés ne correspondent pas aux attentes.");
+        assertTrue(closed.size() < frequentItemsets.size());
+    }
+
+    @Test
+    void testRunMaximal() {
+        Map<Set<String>, Integer> maximal = flatten(new ClosedMiner(database, 0.2).runMaximal());
+
+        // Un itemset est maximal si aucune extension n'est fréquente
+        Map<Set<String>, Integer> expected = new HashMap<>();
+        for (Map.Entry<Set<String>, Integer> entry : frequentItemsets.entrySet()) {
+            if (extensionSupports(entry.getKey()).isEmpty()) {
+                expected.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        assertEquals(expected, maximal, "Les itemsets maximaux ne correspondent pas aux attentes.");
+    }
+
+    @Test
+    void testExpandClosed() {
+        Map<Set<String>, Integer> expanded = new HashMap<>();
+        int count = 0;
+        for (Iterator<Map.Entry<Set<String>, Integer>> it = ClosedMiner.expand(new ClosedMiner(database, 0.2).runClosed()); it.hasNext(); count++) {
+            Map.Entry<Set<String>, Integer> entry = it.next();
+            expanded.put(entry.getKey(), entry.getValue());
+        }
+
+        // Chaque itemset fréquent est retrouvé une seule fois, avec son support exact
+        assertEquals(frequentItemsets.size(), count);
+        assertEquals(frequentItemsets, expanded);
+    }
+
+    // Supports des extensions fréquentes d'un itemset par un seul item
+    private List<Integer> extensionSupports(Set<String> itemset) {
+        List<Integer> supports = new ArrayList<>();
+        for (Map.Entry<Set<String>, Integer> entry : frequentItemsets.entrySet()) {
+            if (entry.getKey().size() == itemset.size() + 1 && entry.getKey().containsAll(itemset)) {
+                supports.add(entry.getValue());
+            }
+        }
+        return supports;
+    }
+
+    private static Map<Set<String>, Integer> flatten(List<Map<Set<String>, Integer>> levels) {
+        Map<Set<String>, Integer> all = new HashMap<>();
+        for (Map<Set<String>, Integer> level : levels) {
+            all.putAll(level);
+        }
+        return all;
+    }
+}
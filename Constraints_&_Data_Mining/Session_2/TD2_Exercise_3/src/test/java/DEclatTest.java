@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DEclatTest {
+
+    @Test
+    void testDenseDatasetSwitchesToDiffsets() throws IOException {
+        Database chess = Utils.loadDataset("datasets/chess.txt");
+
+        List<Map<Set<String>, Integer>> expected = new Eclat(chess, 0.8).run();
+        DEclat dEclat = new DEclat(chess, 0.8);
+        List<Map<Set<String>, Integer>> result = dEclat.run();
+
+        assertEquals(expected, result, "dEclat ne retrouve pas les itemsets fréquents d'Eclat.");
+        // chess est dense : toutes les classes passent aux diffsets
+        assertTrue(dEclat.getDiffsetClasses() > 0);
+        assertEquals(0, dEclat.getTidsetClasses());
+    }
+
+    @Test
+    void testForcedModesMatchBottomUp() {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(Set.of("A", "B", "C")),
+                new Transaction(Set.of("A", "C")),
+                new Transaction(Set.of("A", "B")),
+                new Transaction(Set.of("B", "C")),
+                new Transaction(Set.of("A", "B", "C"))
+        );
+        Database database = new Database(transactions);
+        List<Map<Set<String>, Integer>> expected = new BottomUp(database, 0.2).run();
+
+        // Seuil 0 : diffsets partout ; seuil 1 : tid-lists partout, comme Eclat
+        for (double density : new double[]{0, 1}) {
+            DEclat dEclat = new DEclat(database, 0.2);
+            dEclat.setDiffsetDensity(density);
+            assertEquals(expected, dEclat.run());
+        }
+    }
+
+    @Test
+    void testDifference() {
+        assertArrayEquals(new int[]{1, 4}, DEclat.difference(new int[]{1, 2, 3, 4}, new int[]{0, 2, 3, 5}, 2));
+        // Plus de maxSize tids manquants : abandon
+        assertNull(DEclat.difference(new int[]{1, 2, 3, 4}, new int[]{2}, 2));
+    }
+}
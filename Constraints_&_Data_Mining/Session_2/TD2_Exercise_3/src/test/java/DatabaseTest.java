@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseTest {
+
+    @Test
+    void testProjectMergesIdenticalTransactions() {
+        Database database = new Database(Arrays.asList(
+                new Transaction(Set.of("A", "B", "C", "D")),
+                new Transaction(Set.of("A", "B", "C")),
+                new Transaction(Set.of("A", "B")),
+                new Transaction(Set.of("A", "C"))
+        ));
+        ItemDictionary dictionary = database.getDictionary();
+        List<int[]> candidates = new ArrayList<>();
+        candidates.add(dictionary.encode(Set.of("A", "B", "C")));
+
+        // D disparaît, {A, B} et {A, C} sont trop courts, les deux {A, B, C} fusionnent
+        Database projection = database.project(candidates);
+        assertEquals(1, projection.size());
+        assertEquals(2, projection.getWeight(0));
+        assertEquals(Set.of("A", "B", "C"), dictionary.decode(projection.getItems(0)));
+    }
+
+    @Test
+    void testProjectKeepsSupports() throws IOException {
+        Database mushroom = Utils.loadDataset("datasets/mushroom.txt");
+        List<int[]> candidates = new ArrayList<>();
+        for (int a = 0; a < 20; a++) {
+            for (int b = a + 1; b < 20; b++) {
+                candidates.add(new int[]{a, b});
+            }
+        }
+
+        // Les supports comptés sur la projection pondérée sont ceux de la base complète
+        Database projection = mushroom.project(candidates);
+        assertTrue(projection.size() < mushroom.size());
+        assertArrayEquals(SupportCounter.forCandidates(mushroom, candidates).count(mushroom),
+                SupportCounter.forCandidates(projection, candidates).count(projection, 4));
+    }
+
+    @Test
+    void testTidListsOfProjections() {
+        Database database = new Database(Arrays.asList(
+                new Transaction(Set.of("A", "B", "C")),
+                new Transaction(Set.of("A", "B")),
+                new Transaction(Set.of("A", "C"))
+        ));
+        ItemDictionary dictionary = database.getDictionary();
+        int a = dictionary.getId("A");
+
+        // Une projection pondérée n'a pas de tid-lists ; sans la dernière transaction, pas de tid fantôme pour A
+        List<int[]> candidates = new ArrayList<>();
+        candidates.add(dictionary.encode(Set.of("A", "B")));
+        assertThrows(IllegalStateException.class, () -> database.project(candidates).buildTidLists());
+        Database shortened = new Database(dictionary, database.getItemArray(), Arrays.copyOf(database.getOffsets(), 3));
+        assertArrayEquals(new int[]{0, 1}, shortened.buildTidLists()[a]);
+    }
+}
@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EclatTest {
+
+    @Test
+    void testMatchesAprioriAndBottomUp() throws IOException {
+        // Même base que AprioriTest
+        Database database = new Database(Arrays.asList(
+                new Transaction(Set.of("A", "B", "C")),
+                new Transaction(Set.of("A", "C")),
+                new Transaction(Set.of("A", "B")),
+                new Transaction(Set.of("B", "C")),
+                new Transaction(Set.of("A", "B", "C"))
+        ));
+        // Apriori arrondit le seuil des niveaux >= 2 vers le bas : on le compare quand minSupport * n est entier
+        assertEquals(new Apriori(database, 0.4).run(), new Eclat(database, 0.4).run());
+        assertEquals(new BottomUp(database, 0.5).run(), new Eclat(database, 0.5).run());
+
+        // 435 * 0.2 = 87 transactions
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        List<Map<Set<String>, Integer>> eclat = new Eclat(vote, 0.2).run();
+        assertEquals(new Apriori(vote, 0.2).run(), eclat);
+        assertEquals(new BottomUp(vote, 0.2).run(), eclat);
+    }
+
+    @Test
+    void testIntersectStopsEarly() {
+        int[] a = {0, 1, 2, 3, 7};
+        int[] b = {3, 4, 5, 7};
+
+        assertArrayEquals(new int[]{3, 7}, Eclat.intersect(a, b, 1));
+        assertArrayEquals(new int[]{3, 7}, Eclat.intersect(a, b, 2));
+        // Il ne reste pas assez de tids pour atteindre 3 : abandon avant la fin des listes
+        assertNull(Eclat.intersect(a, b, 3));
+        assertNull(Eclat.intersect(a, new int[]{10, 11}, 1));
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FPGrowthTest {
+
+    private Database database;
+
+    @BeforeEach
+    void setUp() {
+        // Même base de données que AprioriTest
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(Set.of("A", "B", "C")),
+                new Transaction(Set.of("A", "C")),
+                new Transaction(Set.of("A", "B")),
+                new Transaction(Set.of("B", "C")),
+                new Transaction(Set.of("A", "B", "C"))
+        );
+        database = new Database(transactions);
+    }
+
+    @Test
+    void testRunMatchesApriori() {
+        // Seuil entier (40% de 5 transactions = 2) : Apriori et FP-Growth utilisent le même seuil
+        List<Map<Set<String>, Integer>> expected = new Apriori(database, 0.4).run();
+        List<Map<Set<String>, Integer>> result = new FPGrowth(database, 0.4).run();
+
+        assertEquals(3, result.size());
+        assertEquals(expected, result, "FP-Growth ne retrouve pas les itemsets fréquents d'Apriori.");
+    }
+
+    @Test
+    void testRunMatchesBottomUp() {
+        // Seuil non entier (50% de 5 transactions = 2.5) : même arrondi que BottomUp
+        List<Map<Set<String>, Integer>> expected = new BottomUp(database, 0.5).run();
+        List<Map<Set<String>, Integer>> result = new FPGrowth(database, 0.5).run();
+
+        assertEquals(expected, result, "FP-Growth ne retrouve pas les itemsets fréquents de BottomUp.");
+    }
+
+    @Test
+    void testRunOnDataset() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+
+        List<Map<Set<String>, Integer>> expected = new BottomUp(vote, 0.3).run();
+        List<Map<Set<String>, Integer>> result = new FPGrowth(vote, 0.3).run();
+
+        assertEquals(expected, result, "FP-Growth et BottomUp divergent sur vote.txt.");
+        assertEquals(new Eclat(vote, 0.3).run(), result, "FP-Growth et Eclat divergent sur vote.txt.");
+    }
+}
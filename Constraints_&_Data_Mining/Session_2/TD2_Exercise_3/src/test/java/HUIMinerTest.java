@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HUIMinerTest {
+
+    @Test
+    void testSmallDatabase() {
+        Database database = new Database(Arrays.asList(
+                new Transaction(Map.of("A", 1, "B", 2, "C", 1)),
+                new Transaction(Map.of("A", 2, "C", 6)),
+                new Transaction(Map.of("B", 1, "C", 2)),
+                new Transaction(Map.of("A", 1, "B", 1))
+        ));
+        HUIMiner miner = new HUIMiner(database, 12);
+        miner.setUnitPrices(Map.of("A", 5, "B", 2, "C", 1));
+
+        // Utilités : A = 20, B = 8, C = 9, AB = 16, AC = 22, BC = 9, ABC = 10
+        Map<Set<String>, Long> result = new HashMap<>();
+        miner.run().forEach(result::putAll);
+        assertEquals(Map.of(Set.of("A"), 20L, Set.of("A", "B"), 16L, Set.of("A", "C"), 22L), result);
+    }
+
+    @Test
+    void testInvalidUtilitiesAreRejected() {
+        Database database = new Database(Arrays.asList(
+                new Transaction(Map.of("A", 1, "B", 2)),
+                new Transaction(Map.of("A", 2))
+        ));
+        HUIMiner miner = new HUIMiner(database, 3);
+        // Un prix négatif invaliderait les bornes TWU et d'utilité restante
+        assertThrows(IllegalArgumentException.class, () -> miner.setUnitPrices(Map.of("A", 1, "B", -1)));
+        // Quantités strictement positives
+        assertThrows(IllegalArgumentException.class, () -> new Transaction(Map.of("A", 0)));
+
+        // Un prix nul est accepté : B ne compte pas dans l'utilité
+        miner.setUnitPrices(Map.of("A", 1, "B", 0));
+        Map<Set<String>, Long> result = new HashMap<>();
+        miner.run().forEach(result::putAll);
+        assertEquals(Map.of(Set.of("A"), 3L), result);
+    }
+
+    @Test
+    void testMatchesExhaustiveSearch() {
+        Random random = new Random(42);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int t = 0; t < 60; t++) {
+            Map<String, Integer> quantities = new HashMap<>();
+            for (int i = 0; i < 1 + random.nextInt(6); i++) {
+                quantities.put("i" + random.nextInt(8), 1 + random.nextInt(5));
+            }
+            transactions.add(new Transaction(quantities));
+        }
+        Map<String, Integer> prices = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            prices.put("i" + i, 1 + random.nextInt(10));
+        }
+        long minUtility = 150;
+
+        // Utilité de chacun des 255 itemsets possibles
+        Map<Set<String>, Long> expected = new HashMap<>();
+        for (int mask = 1; mask < 1 << 8; mask++) {
+            Set<String> itemset = new HashSet<>();
+            for (int i = 0; i < 8; i++) {
+                if ((mask >> i & 1) != 0) {
+                    itemset.add("i" + i);
+                }
+            }
+            long utility = 0;
+            for (Transaction transaction : transactions) {
+                if (transaction.getItems().containsAll(itemset)) {
+                    for (String item : itemset) {
+                        utility += (long) transaction.getQuantity(item) * prices.get(item);
+                    }
+                }
+            }
+            if (utility >= minUtility) {
+                expected.put(itemset, utility);
+            }
+        }
+
+        HUIMiner miner = new HUIMiner(new Database(transactions), minUtility);
+        miner.setUnitPrices(prices);
+        Map<Set<String>, Long> result = new HashMap<>();
+        miner.run().forEach(result::putAll);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, result);
+    }
+}
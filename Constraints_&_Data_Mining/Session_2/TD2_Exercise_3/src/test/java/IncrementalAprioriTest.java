@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalAprioriTest {
+
+    @Test
+    void testUpdateMatchesFullRun() throws IOException {
+        List<Transaction> transactions = Utils.loadDataset("datasets/vote.txt").getTransactions();
+        int split = 200;
+
+        // Ajout des transactions en deux lots successifs
+        IncrementalApriori incremental = new IncrementalApriori(
+                new Database(new ArrayList<>(transactions.subList(0, split))), 0.3);
+        incremental.update(new ArrayList<>(transactions.subList(split, 300)));
+        List<Map<Set<String>, Integer>> updated = incremental.update(
+                new ArrayList<>(transactions.subList(300, transactions.size())));
+
+        List<Map<Set<String>, Integer>> expected = new Apriori(new Database(transactions), 0.3).run();
+        assertEquals(expected, updated, "La mise à jour incrémentale doit donner le résultat d'Apriori sur tout l'historique.");
+        assertEquals(transactions.size(), incremental.size());
+    }
+
+    @Test
+    void testUpdateWithNewItems() {
+        List<Transaction> history = Arrays.asList(
+                new Transaction(Set.of("A", "B")),
+                new Transaction(Set.of("A", "C")),
+                new Transaction(Set.of("A", "B", "C"))
+        );
+        // "D" n'apparaît que dans l'incrément
+        List<Transaction> increment = Arrays.asList(
+                new Transaction(Set.of("B", "D")),
+                new Transaction(Set.of("B", "C", "D")),
+                new Transaction(Set.of("C", "D"))
+        );
+        IncrementalApriori incremental = new IncrementalApriori(new Database(history), 0.5);
+        List<Map<Set<String>, Integer>> updated = incremental.update(increment);
+
+        List<Transaction> all = new ArrayList<>(history);
+        all.addAll(increment);
+        assertEquals(new Apriori(new Database(all), 0.5).run(), updated);
+        assertEquals(3, updated.get(0).get(Set.of("D")));
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemsetConstraintsTest {
+
+    private static Map<Set<String>, Integer> flatten(List<Map<Set<String>, Integer>> levels) {
+        Map<Set<String>, Integer> itemsets = new HashMap<>();
+        levels.forEach(itemsets::putAll);
+        return itemsets;
+    }
+
+    @Test
+    void testPushedConstraintsMatchFiltering() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        ItemDictionary dictionary = vote.getDictionary();
+        Map<String, Double> weights = new HashMap<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            weights.put(dictionary.getItem(id), (double) (id % 7));
+        }
+
+        ItemsetConstraints required = new ItemsetConstraints();
+        required.addRequired(dictionary.getItem(4));
+        ItemsetConstraints lengths = new ItemsetConstraints();
+        lengths.setMinLength(2);
+        lengths.setMaxLength(3);
+        lengths.addExcluded(dictionary.getItem(0));
+        ItemsetConstraints sums = new ItemsetConstraints();
+        sums.addSumBounds(weights, 6, 12);
+        sums.addOneOf(Set.of(dictionary.getItem(1), dictionary.getItem(2)));
+
+        // Le résultat contraint doit être le résultat complet filtré, pour Apriori comme pour BottomUp
+        Map<Set<String>, Integer> apriori = flatten(new Apriori(vote, 0.3).run());
+        Map<Set<String>, Integer> bottomUp = flatten(new BottomUp(vote, 0.3).run());
+        for (ItemsetConstraints constraints : List.of(required, lengths, sums)) {
+            Map<Set<String>, Integer> expected = new HashMap<>(apriori);
+            expected.keySet().removeIf(itemset -> !constraints.accepts(itemset));
+            Apriori constrained = new Apriori(vote, 0.3);
+            constrained.setConstraints(constraints);
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, flatten(constrained.run()));
+            // Même résultat avec le comptage parallèle, matrice des paires comprise
+            constrained.setThreads(4);
+            assertEquals(expected, flatten(constrained.run()));
+
+            expected = new HashMap<>(bottomUp);
+            expected.keySet().removeIf(itemset -> !constraints.accepts(itemset));
+            BottomUp constrainedBottomUp = new BottomUp(vote, 0.3);
+            constrainedBottomUp.setConstraints(constraints);
+            assertEquals(expected, flatten(constrainedBottomUp.run()));
+        }
+    }
+
+    @Test
+    void testReduceDropsTransactionsWithoutSolutions() {
+        Database database = new Database(Arrays.asList(
+                new Transaction(Set.of("A", "B", "C")),
+                new Transaction(Set.of("A", "C")),
+                new Transaction(Set.of("B", "C")),
+                new Transaction(Set.of("C", "D"))
+        ));
+        ItemsetConstraints constraints = new ItemsetConstraints();
+        constraints.addRequired("A");
+
+        // Sans A, les deux dernières transactions disparaissent, puis B (support 1 < 2) aussi
+        Database reduced = constraints.reduce(database, 2);
+        assertEquals(2, reduced.size());
+        assertEquals(2, reduced.getDictionary().size());
+        assertEquals(-1, reduced.getDictionary().getId("B"));
+    }
+
+    @Test
+    void testNegativeSumValuesAreRejected() {
+        ItemsetConstraints constraints = new ItemsetConstraints();
+        assertThrows(IllegalArgumentException.class, () -> constraints.addSumBounds(Map.of("A", -1.0), 0, 10));
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemsetSinkTest {
+
+    @Test
+    void testCountingSinkMatchesMapResult() throws IOException {
+        Database database = Utils.loadDataset("datasets/vote.txt");
+        List<Map<Set<String>, Integer>> levels = new Apriori(database, 0.3).run();
+
+        CountingSink sink = new CountingSink();
+        new Apriori(database, 0.3).run(sink);
+
+        long total = 0;
+        for (int k = 1; k <= levels.size(); k++) {
+            assertEquals(levels.get(k - 1).size(), sink.getCount(k), "Nombre de " + k + "-itemsets différent.");
+            total += levels.get(k - 1).size();
+        }
+        assertEquals(total, sink.getCount());
+        assertEquals(levels.size(), sink.getMaxSize());
+    }
+
+    @Test
+    void testSinkClosedWhenMiningFails() throws IOException {
+        Database database = Utils.loadDataset("datasets/vote.txt");
+        // Un puits qui échoue au troisième itemset : le mineur doit quand même le fermer
+        class FailingSink implements ItemsetSink {
+            int received;
+            boolean closed;
+
+            @Override
+            public void onItemset(int[] items, int support) {
+                if (++received == 3) {
+                    throw new IllegalStateException("échec");
+                }
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+        }
+        List<Consumer<ItemsetSink>> miners = List.of(
+                sink -> new Apriori(database, 0.3).run(sink),
+                sink -> new BottomUp(database, 0.3).run(sink),
+                sink -> new Eclat(database, 0.3).run(sink),
+                sink -> new DEclat(database, 0.3).run(sink),
+                sink -> new FPGrowth(database, 0.3).run(sink),
+                sink -> new ClosedMiner(database, 0.3).runClosed(sink),
+                sink -> new TopKMiner(database, 10, 1).run(sink),
+                sink -> new ChocoMiner(database, 0.3).run(sink));
+        for (Consumer<ItemsetSink> miner : miners) {
+            FailingSink sink = new FailingSink();
+            assertThrows(IllegalStateException.class, () -> miner.accept(sink));
+            assertTrue(sink.closed, "Puits non fermé après l'échec.");
+        }
+    }
+
+    @Test
+    void testFileSinkWritesOneLinePerItemset(@TempDir Path directory) throws IOException {
+        Database database = Utils.loadDataset("datasets/lazaar.txt");
+        Path output = directory.resolve("itemsets.txt");
+
+        new Eclat(database, 0.2).run(new FileSink(output));
+        CountingSink counter = new CountingSink();
+        new Eclat(database, 0.2).run(counter);
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(counter.getCount(), lines.size());
+        // Format SPMF : "item item ... #SUP: support"
+        for (String line : lines) {
+            assertTrue(line.matches("(\\S+ )+#SUP: \\d+"), "Ligne mal formée : " + line);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairCounterTest {
+
+    @Test
+    void testMatchesCandidateCounting() throws IOException {
+        for (String dataset : new String[]{"datasets/mushroom.txt", "datasets/retail.txt"}) {
+            Database database = Utils.loadDataset(dataset);
+            int items = Math.min(60, database.getDictionary().size());
+
+            // Toutes les paires des items les plus fréquents, comptées comme des candidats ordinaires
+            List<int[]> pairs = new ArrayList<>();
+            for (int a = 0; a < items; a++) {
+                for (int b = a + 1; b < items; b++) {
+                    pairs.add(new int[]{a, b});
+                }
+            }
+            int[] expected = SupportCounter.forCandidates(database, pairs).count(database);
+
+            PairCounter pairCounter = new PairCounter(items);
+            int[] counts = pairCounter.count(database, 4);
+            for (int c = 0; c < pairs.size(); c++) {
+                assertEquals(expected[c], counts[pairCounter.index(pairs.get(c)[0], pairs.get(c)[1])]);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionMinerTest {
+
+    @Test
+    void testPartitionsMatchInMemoryMining() throws IOException {
+        // vote.txt est dense (masques de bits), BMS.txt creux (tid-lists)
+        for (String dataset : List.of("vote.txt:0.3:100", "BMS.txt:0.005:15000")) {
+            String[] parameters = dataset.split(":");
+            String path = "datasets/" + parameters[0];
+            double minSupport = Double.parseDouble(parameters[1]);
+            PartitionMiner miner = new PartitionMiner(path, minSupport, Integer.parseInt(parameters[2]));
+
+            List<Map<Set<String>, Integer>> expected = new FPGrowth(Utils.loadTextDataset(path), minSupport).run();
+            assertEquals(expected, miner.run(), "Résultat différent pour " + dataset);
+            assertTrue(miner.getChunkCount() > 1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleGeneratorTest {
+
+    @Test
+    void testRuleMeasures() {
+        // Base D2 de Main
+        Database database = new Database(Arrays.asList(
+                new Transaction(Set.of("A", "C", "D")),
+                new Transaction(Set.of("B", "C", "E")),
+                new Transaction(Set.of("A", "B", "C", "E")),
+                new Transaction(Set.of("B", "E")),
+                new Transaction(Set.of("A", "B", "C", "E")),
+                new Transaction(Set.of("B", "C", "E"))
+        ));
+        RuleGenerator generator = new RuleGenerator(new Apriori(database, 0.5).run(), database.size());
+        generator.setMinConfidence(0.8);
+
+        Map<List<Set<String>>, AssociationRule> rules = new HashMap<>();
+        for (AssociationRule rule : generator.generate()) {
+            rules.put(List.of(rule.getAntecedent(), rule.getConsequent()), rule);
+            assertTrue(rule.getConfidence() >= 0.8);
+        }
+
+        // B => E : support 5, conf 5/5, lift 1 / (5/6)
+        AssociationRule rule = rules.get(List.of(Set.of("B"), Set.of("E")));
+        assertNotNull(rule);
+        assertEquals(5, rule.getSupport());
+        assertEquals(1.0, rule.getConfidence(), 1e-9);
+        assertEquals(6.0 / 5, rule.getLift(), 1e-9);
+        assertEquals(5.0 / 6 - 5.0 / 6 * 5.0 / 6, rule.getLeverage(), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, rule.getConviction());
+        // C => B : conf 4/5 = 0.8
+        assertEquals(0.8, rules.get(List.of(Set.of("C"), Set.of("B"))).getConfidence(), 1e-9);
+    }
+
+    @Test
+    void testMatchesExhaustiveEnumeration() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        List<Map<Set<String>, Integer>> frequentItemsets = new Apriori(vote, 0.3).run();
+        Map<Set<String>, Integer> supports = new HashMap<>();
+        frequentItemsets.forEach(supports::putAll);
+
+        // Toutes les règles X => Y de confiance >= 0.9, énumérées sans élagage
+        Set<List<Set<String>>> expected = new HashSet<>();
+        for (Map.Entry<Set<String>, Integer> entry : supports.entrySet()) {
+            List<String> items = new ArrayList<>(entry.getKey());
+            for (int mask = 1; mask < (1 << items.size()) - 1; mask++) {
+                Set<String> antecedent = new HashSet<>();
+                for (int i = 0; i < items.size(); i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        antecedent.add(items.get(i));
+                    }
+                }
+                if ((double) entry.getValue() / supports.get(antecedent) >= 0.9) {
+                    Set<String> consequent = new HashSet<>(entry.getKey());
+                    consequent.removeAll(antecedent);
+                    expected.add(List.of(antecedent, consequent));
+                }
+            }
+        }
+
+        RuleGenerator generator = new RuleGenerator(frequentItemsets, vote.size());
+        generator.setMinConfidence(0.9);
+        generator.setThreads(4);
+        Set<List<Set<String>>> generated = new HashSet<>();
+        for (AssociationRule rule : generator.generate()) {
+            generated.add(List.of(rule.getAntecedent(), rule.getConsequent()));
+        }
+        assertEquals(expected, generated);
+    }
+}
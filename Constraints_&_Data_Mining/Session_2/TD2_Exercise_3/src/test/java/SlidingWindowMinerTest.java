@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowMinerTest {
+
+    @Test
+    void testWindowMatchesBatchMining() throws IOException {
+        // retail.txt : beaucoup d'items distincts, les identifiants sont recyclés
+        List<Transaction> transactions = Utils.loadDataset("datasets/retail.txt").getTransactions();
+        int windowSize = 500;
+        // Snapshots minés à la demande, puis arbre maintenu
+        for (boolean incremental : new boolean[]{false, true}) {
+            SlidingWindowMiner miner = new SlidingWindowMiner(windowSize, 0.02);
+            miner.setIncremental(incremental);
+
+            for (int t = 0; t < 3000; t++) {
+                miner.add(transactions.get(t));
+                if ((t + 1) % 700 == 0 || t == 200) {
+                    int from = Math.max(0, t + 1 - windowSize);
+                    Database window = new Database(new ArrayList<>(transactions.subList(from, t + 1)));
+                    assertEquals(new FPGrowth(window, 0.02).run(), miner.getFrequentItemsets(),
+                            "Fenêtre terminant à la transaction " + t + " différente.");
+                }
+            }
+            assertEquals(windowSize, miner.size());
+            assertEquals(3000, miner.getSeen());
+        }
+    }
+
+    @Test
+    void testIncrementalMaintenanceAfterEveryTransaction() {
+        // Peu d'items et une petite fenêtre : des itemsets franchissent le seuil à presque chaque transaction
+        Random random = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            int windowSize = 1 + random.nextInt(20);
+            double minSupport = 0.1 + random.nextDouble() * 0.5;
+            SlidingWindowMiner miner = new SlidingWindowMiner(windowSize, minSupport);
+            miner.setIncremental(true);
+            // Interrogée dès le début : l'arbre est maintenu pendant le remplissage, seuil compris
+            boolean queryWhileFilling = run % 2 == 0;
+
+            for (int t = 0; t < 100; t++) {
+                Set<String> items = new HashSet<>();
+                int length = random.nextInt(7);
+                for (int i = 0; i < length; i++) {
+                    items.add("i" + random.nextInt(8));
+                }
+                miner.add(new Transaction(items));
+                // L'arbre abandonné puis reconstruit en cours de flux
+                if (t == 60) {
+                    miner.setIncremental(false);
+                    miner.setIncremental(true);
+                }
+                if (queryWhileFilling || t >= windowSize) {
+                    assertEquals(new FPGrowth(miner.snapshot(), minSupport).run(), miner.getFrequentItemsets(),
+                            "Exécution " + run + ", transaction " + t + " différente.");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testConsumeFromQueue() throws InterruptedException {
+        BlockingQueue<Transaction> queue = new ArrayBlockingQueue<>(16);
+        Transaction endOfStream = new Transaction(Set.of());
+        SlidingWindowMiner miner = new SlidingWindowMiner(3, 0.6);
+
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(new Transaction(Set.of("A", "B")));
+                queue.put(new Transaction(Set.of("A", "C")));
+                queue.put(new Transaction(Set.of("B", "C")));
+                queue.put(new Transaction(Set.of("B", "C")));
+                queue.put(endOfStream);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        miner.consume(queue, endOfStream);
+        producer.join();
+
+        // Fenêtre : {A,C}, {B,C}, {B,C} ; seuil de 2 transactions
+        List<Map<Set<String>, Integer>> frequentItemsets = miner.getFrequentItemsets();
+        assertEquals(Map.of(Set.of("B"), 2, Set.of("C"), 3), frequentItemsets.get(0));
+        assertEquals(Map.of(Set.of("B", "C"), 2), frequentItemsets.get(1));
+    }
+}
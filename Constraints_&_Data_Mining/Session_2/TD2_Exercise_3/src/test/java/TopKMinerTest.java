@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKMinerTest {
+
+    @Test
+    void testTopKMatchesThresholdMining() throws IOException {
+        Database vote = Utils.loadDataset("datasets/vote.txt");
+        TopKMiner miner = new TopKMiner(vote, 100, 3);
+        Map<Set<String>, Integer> topK = new HashMap<>();
+        miner.run().forEach(topK::putAll);
+
+        // Les k itemsets les plus fréquents (ex aequo compris) de taille >= 3
+        List<Integer> supports = new ArrayList<>();
+        Map<Set<String>, Integer> all = new HashMap<>();
+        new FPGrowth(vote, 0.1).run().forEach(all::putAll);
+        all.forEach((itemset, support) -> {
+            if (itemset.size() >= 3) {
+                supports.add(support);
+            }
+        });
+        supports.sort(Comparator.reverseOrder());
+        int kthSupport = supports.get(99);
+
+        Map<Set<String>, Integer> expected = new HashMap<>();
+        all.forEach((itemset, support) -> {
+            if (itemset.size() >= 3 && support >= kthSupport) {
+                expected.put(itemset, support);
+            }
+        });
+        assertEquals(expected, topK);
+        assertEquals(kthSupport, miner.getSupportThreshold());
+    }
+
+    @Test
+    void testFewerItemsetsThanK() {
+        Database database = new Database(Arrays.asList(
+                new Transaction(Set.of("A", "B")),
+                new Transaction(Set.of("A", "C"))
+        ));
+        Map<Set<String>, Integer> topK = new HashMap<>();
+        new TopKMiner(database, 10, 1).run().forEach(topK::putAll);
+
+        // Seulement 5 itemsets apparaissent dans la base
+        assertEquals(Map.of(Set.of("A"), 2, Set.of("B"), 1, Set.of("C"), 1,
+                Set.of("A", "B"), 1, Set.of("A", "C"), 1), topK);
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        Database database = new Database(List.of(new Transaction(Set.of("A", "B"))));
+        assertThrows(IllegalArgumentException.class, () -> new TopKMiner(database, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TopKMiner(database, -5, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TopKMiner(database, 10, 0));
+    }
+}
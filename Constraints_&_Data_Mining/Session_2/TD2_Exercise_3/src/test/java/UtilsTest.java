@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilsTest {
+
+    @Test
+    void testMappedLoaderMatchesTextLoader() throws IOException {
+        // Tic-Tac-Tae.txt contient des lignes de commentaires "#"
+        for (String path : List.of("datasets/Tic-Tac-Tae.txt", "datasets/vote.txt")) {
+            Database mapped = Utils.loadMappedDataset(path);
+            Database text = Utils.loadTextDataset(path);
+
+            assertNotNull(mapped, "Le chargeur mappé doit accepter les items entiers.");
+            assertEquals(text.size(), mapped.size());
+            assertArrayEquals(text.getOffsets(), mapped.getOffsets());
+            for (int t = 0; t < text.size(); t++) {
+                assertEquals(text.getTransactions().get(t).getItems(), mapped.getTransactions().get(t).getItems(),
+                        "La transaction " + t + " de " + path + " diffère.");
+            }
+        }
+    }
+
+    @Test
+    void testLeadingZerosStayDistinct(@TempDir Path directory) throws IOException {
+        Path dataset = directory.resolve("zeros.txt");
+        Files.writeString(dataset, "007 7 0\n7 10\n");
+
+        // "007" et "7" sont deux items différents : le chargeur mappé doit laisser la main au chargeur texte
+        assertNull(Utils.loadMappedDataset(dataset.toString()));
+        Database database = Utils.loadDataset(dataset.toString());
+        assertEquals(Set.of("007", "7", "0"), database.getTransactions().get(0).getItems());
+        assertEquals(2, database.getDictionary().getFrequency(database.getDictionary().getId("7")));
+        assertEquals(1, database.getDictionary().getFrequency(database.getDictionary().getId("007")));
+    }
+
+    @Test
+    void testCacheRoundTrip(@TempDir Path directory) throws IOException {
+        Database database = Utils.loadTextDataset("datasets/retail.txt");
+        Path cache = directory.resolve("retail.txt.fimc");
+
+        DatabaseCache.write(database, cache);
+        Database cached = DatabaseCache.read(cache);
+
+        assertArrayEquals(database.getOffsets(), cached.getOffsets());
+        assertArrayEquals(database.getItemArray(), cached.getItemArray());
+        for (int id = 0; id < database.getDictionary().size(); id++) {
+            assertEquals(database.getDictionary().getItem(id), cached.getDictionary().getItem(id));
+            assertEquals(database.getDictionary().getFrequency(id), cached.getDictionary().getFrequency(id));
+        }
+    }
+
+    @Test
+    void testQuantitiesLoadAndCache(@TempDir Path directory) throws IOException {
+        Path dataset = directory.resolve("weighted.txt");
+        Files.writeString(dataset, "# quantités\na:2 b:1 c\nb:3 a:1 a:4\nd:x:1 b\n");
+
+        // "c" sans quantité vaut 1, "a" répété additionne ses quantités, "d:x" reste un libellé
+        Database database = Utils.loadDataset(dataset.toString(), true);
+        Database cached = Utils.loadDataset(dataset.toString(), true);
+        for (Database loaded : List.of(database, cached)) {
+            assertTrue(loaded.hasQuantities());
+            List<Transaction> transactions = loaded.getTransactions();
+            assertEquals(2, transactions.get(0).getQuantity("a"));
+            assertEquals(1, transactions.get(0).getQuantity("c"));
+            assertEquals(5, transactions.get(1).getQuantity("a"));
+            assertEquals(1, transactions.get(2).getQuantity("d:x"));
+        }
+    }
+
+    @Test
+    void testInvalidQuantitiesAreRejected(@TempDir Path directory) throws IOException {
+        // Une quantité est un entier strictement positif : 0, un dépassement d'int ou une somme trop grande
+        // rejettent la ligne avec son numéro plutôt que de charger une valeur fausse
+        for (String line : List.of("a:0 b", "1:99999999999 2", "a:2147483647 a:1")) {
+            Path dataset = directory.resolve("invalid.txt");
+            Files.writeString(dataset, "a b\n" + line + "\n");
+            IOException e = assertThrows(IOException.class, () -> Utils.loadTextDataset(dataset.toString()), line);
+            assertTrue(e.getMessage().contains(dataset + ":2:"), e.getMessage());
+        }
+
+        // Sans chiffres après les deux-points, le jeton reste un libellé
+        Path dataset = directory.resolve("labels.txt");
+        Files.writeString(dataset, "a:2147483647 b:-1 c:\n");
+        Database database = Utils.loadTextDataset(dataset.toString());
+        assertEquals(Integer.MAX_VALUE, database.getTransactions().get(0).getQuantity("a"));
+        assertEquals(1, database.getTransactions().get(0).getQuantity("b:-1"));
+        assertEquals(1, database.getTransactions().get(0).getQuantity("c:"));
+    }
+
+    @Test
+    void testCacheByDefault(@TempDir Path directory) throws IOException {
+        Path dataset = directory.resolve("vote.txt");
+        Files.copy(Path.of("datasets/vote.txt"), dataset);
+        Path cache = Utils.cachePath(dataset.toString());
+        Files.deleteIfExists(cache);
+
+        // Le cache n'est pas écrit à côté du jeu de données, et seulement si on ne le désactive pas
+        assertNotEquals(directory, cache.getParent());
+        Database expected = Utils.loadDataset(dataset.toString(), false);
+        assertFalse(Files.exists(cache));
+        Utils.loadDataset(dataset.toString());
+        assertTrue(Files.exists(cache));
+        Database cached = Utils.loadDataset(dataset.toString());
+        assertArrayEquals(expected.getItemArray(), cached.getItemArray());
+
+        // Un cache tronqué est ignoré et le fichier texte relu
+        byte[] bytes = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(DatabaseCache.read(cache));
+        Database reloaded = Utils.loadDataset(dataset.toString());
+        assertArrayEquals(expected.getItemArray(), reloaded.getItemArray());
+        assertArrayEquals(expected.getOffsets(), reloaded.getOffsets());
+        Files.deleteIfExists(cache);
+    }
+}